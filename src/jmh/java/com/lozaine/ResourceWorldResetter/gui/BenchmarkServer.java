@@ -0,0 +1,95 @@
+package com.lozaine.ResourceWorldResetter.gui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Just enough of a server for menus to be built outside one: inventories keep their items in an array
+ * and item meta keeps its name and lore. Everything else answers with a default value.
+ */
+final class BenchmarkServer {
+    private BenchmarkServer() {
+    }
+
+    static synchronized void install() {
+        if (Bukkit.getServer() != null) return;
+        ItemFactory itemFactory = proxy(ItemFactory.class, (method, args) -> switch (method.getName()) {
+            case "getItemMeta" -> meta(new HashMap<>());
+            case "isApplicable" -> true;
+            case "asMetaFor" -> args[0];
+            case "updateMaterial" -> args[1];
+            default -> null;
+        });
+        Bukkit.setServer(proxy(Server.class, (method, args) -> switch (method.getName()) {
+            case "createInventory" -> inventory((Integer) args[1]);
+            case "getItemFactory" -> itemFactory;
+            case "getLogger" -> Logger.getLogger("BenchmarkServer");
+            default -> null;
+        }));
+    }
+
+    private static Inventory inventory(int size) {
+        ItemStack[] items = new ItemStack[size];
+        return proxy(Inventory.class, (method, args) -> switch (method.getName()) {
+            case "setItem" -> items[(Integer) args[0]] = (ItemStack) args[1];
+            case "getItem" -> items[(Integer) args[0]];
+            case "getSize" -> size;
+            default -> null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ItemMeta meta(Map<String, Object> values) {
+        return proxy(ItemMeta.class, (method, args) -> switch (method.getName()) {
+            case "setDisplayName" -> values.put("name", args[0]);
+            case "getDisplayName" -> values.get("name");
+            case "setLore" -> values.put("lore", args[0]);
+            case "getLore" -> (List<String>) values.get("lore");
+            case "clone" -> meta(new HashMap<>(values));
+            default -> null;
+        });
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(BenchmarkServer.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "equals" -> proxy == args[0];
+                            case "hashCode" -> System.identityHashCode(proxy);
+                            default -> type.getSimpleName();
+                        };
+                    }
+                    Object result = handler.handle(method, args);
+                    return result != null ? result : defaultValue(method.getReturnType());
+                }));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return '\0';
+        if (type == String.class) return "Benchmark";
+        return null;
+    }
+}
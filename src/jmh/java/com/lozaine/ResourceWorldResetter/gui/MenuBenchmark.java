@@ -0,0 +1,92 @@
+package com.lozaine.ResourceWorldResetter.gui;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the admin menus from scratch against reusing a built menu and rewriting only the
+ * slots that change, which is what {@link AdminGUI} does on every open. AdminGUI itself needs a running
+ * plugin, so the menus are put together here from {@link Menu} and AdminGUI's own item builders,
+ * on top of {@link BenchmarkServer}; absolute numbers leave out the server's item and inventory costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MenuBenchmark {
+    private static final int WORLDS_PER_PAGE = 45;
+
+    private final List<String> worlds = new ArrayList<>();
+    private Menu mainMenu;
+    private Menu worldPage;
+
+    @Setup
+    public void build() {
+        BenchmarkServer.install();
+        for (int i = 0; i < WORLDS_PER_PAGE; i++) {
+            worlds.add("resources_" + i);
+        }
+        mainMenu = buildMainMenu();
+        worldPage = new Menu(AdminGUI.GuiType.WORLD_SELECTION_MENU, 54, ChatColor.DARK_AQUA + "Select Resource World");
+    }
+
+    @Benchmark
+    public Menu mainMenuFromScratch() {
+        Menu menu = buildMainMenu();
+        setSettings(menu);
+        return menu;
+    }
+
+    @Benchmark
+    public Menu mainMenuReused() {
+        setSettings(mainMenu);
+        return mainMenu;
+    }
+
+    @Benchmark
+    public Menu worldPageFromScratch() {
+        Menu menu = new Menu(AdminGUI.GuiType.WORLD_SELECTION_MENU, 54, ChatColor.DARK_AQUA + "Select Resource World");
+        fillWorldPage(menu);
+        return menu;
+    }
+
+    @Benchmark
+    public Menu worldPageReused() {
+        worldPage.clear(0, WORLDS_PER_PAGE);
+        fillWorldPage(worldPage);
+        return worldPage;
+    }
+
+    private static Menu buildMainMenu() {
+        Menu menu = new Menu(AdminGUI.GuiType.MAIN_MENU, 27, ChatColor.DARK_AQUA + "" + ChatColor.BOLD + "Resource World Admin");
+        menu.set(10, AdminGUI.createGuiItem(Material.GRASS_BLOCK, "Change World", "Select which world to reset"), null);
+        menu.set(12, AdminGUI.createGuiItem(Material.CLOCK, "Reset Type", "Daily, weekly, or monthly"), null);
+        menu.set(14, AdminGUI.createGuiItem(Material.SUNFLOWER, "Restart Time", "Hour of daily reset"), null);
+        menu.set(16, AdminGUI.createGuiItem(Material.BELL, "Warning Time", "Minutes before reset"), null);
+        menu.set(18, AdminGUI.createGuiItem(Material.COMPASS, "Managed Worlds", "Reset state of every resource world"), null);
+        menu.set(20, AdminGUI.createGuiItem(Material.TNT, "Force Reset", "Reset world immediately"), null);
+        menu.set(22, AdminGUI.createGuiItem(Material.REDSTONE, "Reload Config", "Reload all settings"), null);
+        return menu;
+    }
+
+    private static void setSettings(Menu menu) {
+        menu.set(4, AdminGUI.createInfoItem(Material.BOOK, "Current Settings",
+                "World: " + ChatColor.AQUA + "Resources",
+                "Reset Type: " + ChatColor.YELLOW + "Daily",
+                "Restart Time: " + ChatColor.GOLD + "3:00",
+                "Warning Time: " + ChatColor.RED + "5 minutes"), null);
+    }
+
+    private void fillWorldPage(Menu menu) {
+        for (int i = 0; i < worlds.size(); i++) {
+            menu.set(i, AdminGUI.createGuiItem(Material.GRASS_BLOCK, worlds.get(i), "Normal world"), (player, rightClick) -> { });
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Cost of computing when a world resets next, which is what scheduling a reset comes down to,
+ * for each kind of schedule. The year variant walks every reset of a year, as the scheduler does over time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NextResetBenchmark {
+    @Param({"daily", "weekly", "monthly", "cron"})
+    String schedule;
+
+    private ManagedWorld world;
+    private ZonedDateTime now;
+
+    @Setup
+    public void configure() {
+        YamlConfiguration section = new YamlConfiguration();
+        section.set("restartTime", 3);
+        section.set("resetDay", 31);
+        if ("cron".equals(schedule)) {
+            section.set("schedules", List.of("0 4 * * 1,4", "30 2 1 * *"));
+        } else {
+            section.set("resetType", schedule);
+        }
+        world = new ManagedWorld("Resources");
+        world.load(section, null, Logger.getAnonymousLogger());
+        now = ZonedDateTime.of(2025, 3, 20, 14, 30, 0, 0, ZoneId.of("Europe/Berlin"));
+    }
+
+    @Benchmark
+    public ZonedDateTime nextReset() {
+        return world.computeNextReset(now);
+    }
+
+    @Benchmark
+    public int yearOfResets() {
+        ZonedDateTime end = now.plusYears(1);
+        int resets = 0;
+        for (ZonedDateTime next = world.computeNextReset(now); next.isBefore(end); next = world.computeNextReset(next)) {
+            resets++;
+        }
+        return resets;
+    }
+}
@@ -0,0 +1,65 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Throughput of {@link LogUtil#log} with the reset log writer running, from one and from several threads at once.
+ * The logger has no handlers, so only the plugin's own cost is measured, not the console's.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogUtilBenchmark {
+    private static final String MESSAGE = "Reset phases of Resources: evacuation 1520ms, unload 310ms, delete 4210ms, "
+            + "create 2875ms, 12 players moved, 18432 files / 2048 MB deleted at 486.5 MB/s";
+
+    @Param({"1024", "4096"})
+    int queueCapacity;
+
+    @Param({"0", "5"})
+    long maxWaitMillis;
+
+    private Logger logger;
+    private File logFile;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logFile = Files.createTempFile("rwr-log-", ".log").toFile();
+        LogUtil.init(logFile, logger, queueCapacity, 1000, maxWaitMillis);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        LogUtil.shutdown(logger);
+        logFile.delete();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneThread() {
+        LogUtil.log(logger, MESSAGE, java.util.logging.Level.INFO);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void fourThreads() {
+        LogUtil.log(logger, MESSAGE, java.util.logging.Level.INFO);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void sixteenThreads() {
+        LogUtil.log(logger, MESSAGE, java.util.logging.Level.INFO);
+    }
+}
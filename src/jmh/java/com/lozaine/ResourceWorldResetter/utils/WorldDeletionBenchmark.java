@@ -0,0 +1,132 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Compares ways of removing a world folder. Each invocation deletes a freshly written tree laid out like
+ * a vanilla world: block, entity and POI region files, player data and level.dat. The tree is written
+ * under java.io.tmpdir, or the directory given with -PbenchDir; point that at the disk the server runs on,
+ * since /tmp is often a RAM disk.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class WorldDeletionBenchmark {
+
+    @State(Scope.Thread)
+    public static class WorldTree {
+        @Param({"128", "512"})
+        int regions;
+
+        @Param({"1024"})
+        int regionKb;
+
+        Path base;
+        Path world;
+        private byte[] chunk;
+
+        @Setup(Level.Trial)
+        public void createBase() throws IOException {
+            Path parent = Paths.get(System.getProperty("rwr.benchmarkDir", System.getProperty("java.io.tmpdir")));
+            base = Files.createTempDirectory(parent, "rwr-delete-");
+            chunk = new byte[64 * 1024];
+            new Random(42).nextBytes(chunk);
+        }
+
+        @Setup(Level.Invocation)
+        public void writeWorld() throws IOException {
+            world = base.resolve("Resources");
+            int side = (int) Math.ceil(Math.sqrt(regions));
+            for (int i = 0; i < regions; i++) {
+                String name = "r." + (i % side - side / 2) + "." + (i / side - side / 2) + ".mca";
+                write(world.resolve("region").resolve(name), regionKb * 1024L);
+                write(world.resolve("entities").resolve(name), regionKb * 1024L / 8);
+                write(world.resolve("poi").resolve(name), regionKb * 1024L / 16);
+            }
+            for (int i = 0; i < 50; i++) {
+                write(world.resolve("playerdata").resolve("player-" + i + ".dat"), 4 * 1024);
+            }
+            write(world.resolve("data").resolve("raids.dat"), 1024);
+            write(world.resolve("level.dat"), 2 * 1024);
+        }
+
+        @TearDown(Level.Trial)
+        public void deleteBase() {
+            WorldTrash.deleteTree(base);
+        }
+
+        // Forced to disk, like a world that was saved before it was unloaded
+        private void write(Path file, long size) throws IOException {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (long written = 0; written < size; ) {
+                    ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, (int) Math.min(chunk.length, size - written));
+                    written += channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TrashPool {
+        @Param({"1", "2", "4"})
+        int threads;
+
+        WorldTrash trash;
+
+        @Setup(Level.Trial)
+        public void start(WorldTree tree) {
+            IoThrottle unlimited = new IoThrottle(target -> false);
+            unlimited.configure(0, 0, 0);
+            trash = new WorldTrash(tree.base.toFile(), Logger.getAnonymousLogger(), threads, unlimited);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            trash.shutdown();
+        }
+    }
+
+    @Benchmark
+    public long forkJoinCommonPool(WorldTree tree) {
+        return WorldTrash.deleteTree(tree.world);
+    }
+
+    @Benchmark
+    public long dedicatedPool(WorldTree tree, TrashPool pool) {
+        return pool.trash.delete(tree.world).bytes();
+    }
+
+    @Benchmark
+    public long sequentialWalk(WorldTree tree) throws IOException {
+        long[] bytes = new long[1];
+        Files.walkFileTree(tree.world, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                bytes[0] += attributes.size();
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return bytes[0];
+    }
+}
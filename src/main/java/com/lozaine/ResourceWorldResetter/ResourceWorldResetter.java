@@ -1,66 +1,119 @@
 package com.lozaine.ResourceWorldResetter;
 
+import com.lozaine.ResourceWorldResetter.coordination.CoordinationBackend;
+import com.lozaine.ResourceWorldResetter.coordination.PluginMessagingBackend;
+import com.lozaine.ResourceWorldResetter.coordination.ResetCoordinator;
+import com.lozaine.ResourceWorldResetter.coordination.SharedDirectoryBackend;
 import com.lozaine.ResourceWorldResetter.gui.AdminGUI;
 import com.lozaine.ResourceWorldResetter.gui.AdminGUIListener;
+import com.lozaine.ResourceWorldResetter.monitor.MetricsServer;
+import com.lozaine.ResourceWorldResetter.monitor.ResetMetrics;
+import com.lozaine.ResourceWorldResetter.monitor.ResetTimings;
+import com.lozaine.ResourceWorldResetter.monitor.StallWatchdog;
+import com.lozaine.ResourceWorldResetter.monitor.TaskBudget;
+import com.lozaine.ResourceWorldResetter.monitor.TickMonitor;
+import com.lozaine.ResourceWorldResetter.reset.ChunkPregenerator;
+import com.lozaine.ResourceWorldResetter.reset.CountdownEngine;
+import com.lozaine.ResourceWorldResetter.reset.Evacuation;
+import com.lozaine.ResourceWorldResetter.reset.ManagedWorld;
+import com.lozaine.ResourceWorldResetter.reset.RegionPruner;
+import com.lozaine.ResourceWorldResetter.reset.ResetJournal;
+import com.lozaine.ResourceWorldResetter.reset.ResetPipeline;
+import com.lozaine.ResourceWorldResetter.reset.ResetQueue;
+import com.lozaine.ResourceWorldResetter.reset.ResetScheduler;
+import com.lozaine.ResourceWorldResetter.reset.StandbyWorld;
+import com.lozaine.ResourceWorldResetter.scheduler.BudgetedTaskScheduler;
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import com.lozaine.ResourceWorldResetter.utils.ConfigSaver;
 import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+import com.lozaine.ResourceWorldResetter.utils.TemplateCopier;
+import com.lozaine.ResourceWorldResetter.utils.IoThrottle;
+import com.lozaine.ResourceWorldResetter.utils.WorldArchiver;
+import com.lozaine.ResourceWorldResetter.utils.WorldTrash;
 import com.onarandombox.MultiverseCore.MultiverseCore;
 import com.onarandombox.MultiverseCore.api.MVWorldManager;
 import org.bukkit.*;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.concurrent.CompletableFuture;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
 import java.util.logging.Level;
 
-import static com.onarandombox.MultiverseCore.utils.FileUtils.deleteFolder;
-
 public class ResourceWorldResetter extends JavaPlugin {
-    private String worldName;
-    private MultiverseCore core;
-    private int restartTime;
-    private int resetWarningTime;
-    private String resetType;
-    private int resetDay;
+    private MVWorldManager worldManager;
+    private String deletionMode;
     private AdminGUI adminGUI;
+    private WorldTrash worldTrash;
+    private WorldArchiver worldArchiver;
+    private IoThrottle deletionThrottle;
+    private TemplateCopier templateCopier;
+    private ChunkPregenerator chunkPregenerator;
+    private ResetQueue resetQueue;
+    private ResetJournal resetJournal;
+    private CountdownEngine countdownEngine;
+    private ResetScheduler resetScheduler;
+    private ConfigSaver configSaver;
+    private TaskScheduler taskScheduler;
+    private TickMonitor tickMonitor;
+    private TaskBudget taskBudget;
+    private StallWatchdog stallWatchdog;
+    private List<Integer> tickWindows;
+    private ResetMetrics resetMetrics;
+    private MetricsServer metricsServer;
+    private ResetCoordinator resetCoordinator;
+    // The world configured by the top-level keys comes first, followed by the entries under "worlds"
+    private final Map<String, ManagedWorld> managedWorlds = new LinkedHashMap<>();
+    private ManagedWorld primaryWorld;
 
-    public String getWorldName() { return this.worldName; }
-    public String getResetType() { return this.resetType; }
-    public int getRestartTime() { return this.restartTime; }
-    public int getResetWarningTime() { return this.resetWarningTime; }
-    public int getResetDay() { return this.resetDay; }
+    public String getWorldName() { return primaryWorld.getName(); }
+    public String getResetType() { return primaryWorld.getResetType(); }
+    public int getRestartTime() { return primaryWorld.getRestartTime(); }
+    public int getResetWarningTime() { return primaryWorld.getResetWarningTime(); }
+    public int getResetDay() { return primaryWorld.getResetDay(); }
+    public ChunkPregenerator getChunkPregenerator() { return this.chunkPregenerator; }
+    public Collection<ManagedWorld> getManagedWorlds() { return managedWorlds.values(); }
+    public ResetQueue getResetQueue() { return this.resetQueue; }
+    public CountdownEngine getCountdownEngine() { return this.countdownEngine; }
+    public ManagedWorld getManagedWorld(String name) { return managedWorlds.get(name); }
+    public TaskScheduler getTaskScheduler() { return this.taskScheduler; }
+    public TaskBudget getTaskBudget() { return this.taskBudget; }
+    public TickMonitor getTickMonitor() { return this.tickMonitor; }
+    public ResetMetrics getResetMetrics() { return this.resetMetrics; }
+    public AdminGUI getAdminGUI() { return this.adminGUI; }
 
     public void setWorldName(String name) {
-        this.worldName = name;
         getConfig().set("worldName", name);
-        saveConfig();
-        ensureResourceWorldExists();
+        stageConfigChange(); // The primary world is a new managed world now
     }
 
     public void setResetType(String type) {
-        this.resetType = type;
         getConfig().set("resetType", type);
-        saveConfig();
-        scheduleDailyReset(); // Reschedule after changing type
+        stageConfigChange(); // Reschedule after changing type
     }
 
     public void setResetDay(int day) {
-        this.resetDay = day;
         getConfig().set("resetDay", day);
-        saveConfig();
-        scheduleDailyReset(); // Reschedule after changing day
+        stageConfigChange(); // Reschedule after changing day
     }
 
     public void setRestartTime(int hour) {
         if (hour >= 0 && hour <= 23) {
-            this.restartTime = hour;
             getConfig().set("restartTime", hour);
-            saveConfig();
-            scheduleDailyReset(); // Reschedule after changing time
+            stageConfigChange(); // Reschedule after changing time
 
             LogUtil.log(getLogger(), "Restart time set to " + hour + ":00", Level.INFO);
         }
@@ -68,39 +121,139 @@ public class ResourceWorldResetter extends JavaPlugin {
 
     public void setResetWarningTime(int minutes) {
         if (minutes >= 0) {
-            this.resetWarningTime = minutes;
             getConfig().set("resetWarningTime", minutes);
-            saveConfig();
+            stageConfigChange();
 
             LogUtil.log(getLogger(), "Reset warning time set to " + minutes + " minutes", Level.INFO);
         }
     }
 
+    /**
+     * Applies a config change to the managed worlds right away and leaves saving and rescheduling
+     * to the config saver, which does both once for a burst of changes.
+     */
+    private void stageConfigChange() {
+        loadWorlds();
+        configSaver.stage();
+    }
+
+    private void applyConfigChanges() {
+        ensureResourceWorldExists();
+        scheduleDailyReset();
+    }
+
+    /**
+     * Looks up Multiverse-Core's world manager, or returns null if it isn't installed. Tests replace it
+     * with a stand-in.
+     */
+    protected MVWorldManager findWorldManager() {
+        Plugin multiverse = Bukkit.getPluginManager().getPlugin("Multiverse-Core");
+        return multiverse instanceof MultiverseCore core ? core.getMVWorldManager() : null;
+    }
+
     @Override
     public void onEnable() {
         saveDefaultConfig();
         LogUtil.init(this);
-        core = (MultiverseCore) Bukkit.getPluginManager().getPlugin("Multiverse-Core");
+        worldManager = findWorldManager();
 
-        if (core == null) {
+        if (worldManager == null) {
             LogUtil.log(getLogger(), "Multiverse-Core not found! Disabling plugin.", Level.SEVERE);
             Bukkit.getPluginManager().disablePlugin(this);
             return;
         }
 
+        taskBudget = new TaskBudget(getLogger());
+        stallWatchdog = new StallWatchdog(getLogger(), new File(getDataFolder(), "logs"));
+        taskBudget.setWatchdog(stallWatchdog);
+        taskScheduler = new BudgetedTaskScheduler(TaskScheduler.create(this), taskBudget);
+        if (taskScheduler.isRegionized()) {
+            LogUtil.log(getLogger(), "Running on Folia, tasks are scheduled on the global region, world regions and player schedulers", Level.INFO);
+        }
+        tickMonitor = new TickMonitor(this, taskScheduler, getConfig().getInt("tickMonitor.historySeconds", 900));
+        tickMonitor.start();
+        configSaver = new ConfigSaver(this, taskScheduler, this::applyConfigChanges);
+        resetJournal = new ResetJournal(this);
+        getServer().getPluginManager().registerEvents(resetJournal, this);
+        resetQueue = new ResetQueue(this, taskScheduler, this::performReset);
+        countdownEngine = new CountdownEngine(this, taskScheduler);
+        resetScheduler = new ResetScheduler(this, taskScheduler, tickMonitor, this::resetResourceWorld);
+        resetMetrics = new ResetMetrics(tickMonitor, taskBudget, resetQueue::getWaitingCount);
+        deletionThrottle = new IoThrottle(tickMonitor::isOverloaded);
         loadConfig();
+        worldTrash = new WorldTrash(Bukkit.getWorldContainer(), getLogger(), getConfig().getInt("trashDeleteThreads", 2),
+                deletionThrottle);
+        worldTrash.setDeletedListener(resetMetrics::recordTrashDeleted);
+        if (getConfig().getBoolean("archive.enabled", false)) {
+            // Archiving reads at the deletion rate, so it doesn't compete harder for the disk than deleting would
+            worldArchiver = new WorldArchiver(getDataFolder().toPath().resolve(getConfig().getString("archive.folder", "archives")),
+                    getLogger(), getConfig().getInt("archive.threads", 2), deletionThrottle);
+            configureArchiver();
+            worldArchiver.sweep();
+            worldTrash.setArchiver(worldArchiver);
+        }
+        if (worldTrash.hasLeftovers()) {
+            LogUtil.log(getLogger(), "Found leftover world folders in trash, deleting them in the background", Level.INFO);
+            worldTrash.purgeAsync();
+        }
+
+        if (getConfig().getBoolean("template.enabled", false)) {
+            templateCopier = new TemplateCopier(getLogger(),
+                    getConfig().getString("template.copyMode", "auto"),
+                    getConfig().getInt("template.copyThreads", 4));
+        }
+        if (getConfig().getBoolean("pregen.enabled", false)) {
+            chunkPregenerator = new ChunkPregenerator(this, taskScheduler, tickMonitor,
+                    getConfig().getInt("pregen.radius", 64),
+                    getConfig().getString("pregen.order", "spiral"),
+                    getConfig().getDouble("pregen.maxMillisPerTick", 10),
+                    getConfig().getDouble("pregen.minMillisPerTick", 1),
+                    getConfig().getDouble("pregen.targetTickMillis", 40));
+            chunkPregenerator.setCompletionListener(this::onPregenerationFinished);
+        }
+        if (getConfig().getBoolean("metrics.enabled", false)) {
+            metricsServer = new MetricsServer(getLogger(), resetMetrics);
+            metricsServer.start(getConfig().getString("metrics.bindAddress", "127.0.0.1"),
+                    getConfig().getInt("metrics.port", 9465));
+        }
+
+        if (getConfig().getBoolean("coordination.enabled", false)) {
+            resetCoordinator = createCoordinator();
+            resetCoordinator.start();
+        }
+
         adminGUI = new AdminGUI(this);
         getServer().getPluginManager().registerEvents(new AdminGUIListener(this, adminGUI), this);
 
+        recoverInterruptedResets();
         ensureResourceWorldExists();
-        scheduleDailyReset();
+        for (ManagedWorld world : managedWorlds.values()) {
+            StandbyWorld standby = world.getStandbyWorld();
+            if (standby != null && standby.exists()) {
+                // Pick up the standby world generated before the last shutdown
+                standby.prepare();
+            }
+        }
+        resetScheduler.start(managedWorlds.values());
+        if (chunkPregenerator != null) chunkPregenerator.resume();
         LogUtil.log(getLogger(), "ResourcesWorldResetter v" + getDescription().getVersion() + " enabled successfully!", Level.INFO);
     }
 
     @Override
     public void onDisable() {
-        Bukkit.getScheduler().cancelTasks(this);
+        if (chunkPregenerator != null) chunkPregenerator.shutdown();
+        if (tickMonitor != null) tickMonitor.stop();
+        if (stallWatchdog != null) stallWatchdog.stop();
+        if (metricsServer != null) metricsServer.stop();
+        if (resetCoordinator != null) resetCoordinator.stop();
+        if (countdownEngine != null) countdownEngine.cancelAll();
+        if (resetScheduler != null) resetScheduler.stop();
+        if (configSaver != null) configSaver.shutdown();
+        if (taskScheduler != null) taskScheduler.cancelAll();
+        if (worldTrash != null) worldTrash.shutdown();
+        if (worldArchiver != null) worldArchiver.shutdown();
         LogUtil.log(getLogger(), "ResourceWorldResetter disabled.", Level.INFO);
+        LogUtil.shutdown(getLogger());
     }
 
     @Override
@@ -109,7 +262,11 @@ public class ResourceWorldResetter extends JavaPlugin {
             switch (command.getName().toLowerCase()) {
                 case "rwrgui":
                     if (sender instanceof Player player) {
-                        adminGUI.openMainMenu(player);
+                        if (args.length > 0 && args[0].equalsIgnoreCase("search")) {
+                            adminGUI.searchWorlds(player, args.length > 1 ? args[1] : null);
+                        } else {
+                            adminGUI.openMainMenu(player);
+                        }
                         return true;
                     } else {
                         sender.sendMessage(ChatColor.RED + "This command can only be used by players.");
@@ -117,7 +274,6 @@ public class ResourceWorldResetter extends JavaPlugin {
                     }
 
                 case "reloadrwr":
-                    reloadConfig();
                     loadConfig();
                     scheduleDailyReset(); // Re-schedule resets after reload
                     sender.sendMessage(ChatColor.GREEN + "ResourcesWorldResetter configuration reloaded!");
@@ -125,8 +281,36 @@ public class ResourceWorldResetter extends JavaPlugin {
 
                 // Keeping resetworld for backward compatibility
                 case "resetworld":
-                    sender.sendMessage(ChatColor.GREEN + "Forcing resource world reset...");
-                    resetResourceWorld();
+                    ManagedWorld target = args.length > 0 ? managedWorlds.get(args[0]) : primaryWorld;
+                    if (target == null) {
+                        sender.sendMessage(ChatColor.RED + "'" + args[0] + "' is not a managed resource world.");
+                        return true;
+                    }
+                    sender.sendMessage(ChatColor.GREEN + "Forcing reset of resource world " + target.getName() + "...");
+                    taskBudget.measure("resetResourceWorld", () -> resetResourceWorld(target));
+                    return true;
+
+                case "rwrpregen":
+                    handlePregenCommand(sender, args);
+                    return true;
+
+                case "rwrpending":
+                    handlePendingCommand(sender, args);
+                    return true;
+
+                case "rwrarchive":
+                    handleArchiveCommand(sender, args);
+                    return true;
+
+                case "rwrtps":
+                    if (args.length > 0 && args[0].equalsIgnoreCase("tasks")) {
+                        handleTaskBudgetCommand(sender, args);
+                        return true;
+                    }
+                    sender.sendMessage(ChatColor.GOLD + "Server tick times:");
+                    for (int window : tickWindows) {
+                        sender.sendMessage(ChatColor.GRAY + "Last " + window + "s: " + tickMonitor.getStats(window).describe());
+                    }
                     return true;
             }
         } else {
@@ -136,66 +320,306 @@ public class ResourceWorldResetter extends JavaPlugin {
         return false;
     }
 
-    private void scheduleDailyReset() {
-        Bukkit.getScheduler().cancelTasks(this);
+    private void handleTaskBudgetCommand(CommandSender sender, String[] args) {
+        if (args.length > 1 && args[1].equalsIgnoreCase("clear")) {
+            taskBudget.clear();
+            sender.sendMessage(ChatColor.GREEN + "Main thread task measurements cleared.");
+            return;
+        }
+        if (!taskBudget.isEnabled()) {
+            sender.sendMessage(ChatColor.GRAY + "Main thread task measurement is disabled (taskBudget.enabled).");
+            return;
+        }
+
+        List<TaskBudget.Snapshot> usage = taskBudget.getUsage();
+        sender.sendMessage(ChatColor.GOLD + "Main thread tasks, slowest first:");
+        if (usage.isEmpty()) sender.sendMessage(ChatColor.GRAY + "Nothing measured yet.");
+        for (TaskBudget.Snapshot snapshot : usage) {
+            sender.sendMessage((snapshot.overBudget() > 0 ? ChatColor.RED : ChatColor.GRAY) + snapshot.describe());
+        }
+    }
 
-        // For daily, weekly, monthly resets
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime nextReset = now.withHour(restartTime).withMinute(0).withSecond(0);
+    private void handlePendingCommand(CommandSender sender, String[] args) {
+        String action = args.length > 0 ? args[0].toLowerCase() : "list";
+        if (action.equals("list")) {
+            boolean any = false;
+            for (ManagedWorld world : managedWorlds.values()) {
+                CountdownEngine.Countdown countdown = countdownEngine.getCountdown(world);
+                if (countdown != null) {
+                    sender.sendMessage(ChatColor.GOLD + world.getName() + ChatColor.GRAY + ": resets in "
+                            + CountdownEngine.formatDuration(countdown.getRemainingSeconds()));
+                } else if (world.getState() == ManagedWorld.State.QUEUED) {
+                    sender.sendMessage(ChatColor.GOLD + world.getName() + ChatColor.GRAY + ": queued, position " + resetQueue.getPosition(world));
+                } else if (resetScheduler.isWaitingInWindow(world)) {
+                    sender.sendMessage(ChatColor.GOLD + world.getName() + ChatColor.GRAY + ": reset window open, waiting for a quiet moment");
+                } else if (resetCoordinator != null && resetCoordinator.isWaiting(world.getName())) {
+                    sender.sendMessage(ChatColor.GOLD + world.getName() + ChatColor.GRAY + ": waiting for the network reset lease");
+                } else if (world.getState() == ManagedWorld.State.RESETTING) {
+                    ResetPipeline pipeline = world.getPipeline();
+                    sender.sendMessage(ChatColor.GOLD + world.getName() + ChatColor.GRAY + ": resetting now"
+                            + (pipeline != null && pipeline.getStage() != null ? ", stage " + pipeline.getStage().name().toLowerCase() : ""));
+                } else {
+                    continue;
+                }
+                any = true;
+            }
+            if (!any) sender.sendMessage(ChatColor.GRAY + "No resets are pending.");
+            return;
+        }
 
-        // If current time is past reset time, schedule for next occurrence
-        if (now.compareTo(nextReset) >= 0) {
-            nextReset = nextReset.plusDays(1);
+        ManagedWorld target = args.length > 1 ? managedWorlds.get(args[1]) : primaryWorld;
+        if (target == null) {
+            sender.sendMessage(ChatColor.RED + "'" + args[1] + "' is not a managed resource world.");
+            return;
         }
 
-        // Handle weekly resets
-        if ("weekly".equals(resetType)) {
-            int currentDay = now.getDayOfWeek().getValue(); // 1 (Monday) to 7 (Sunday)
-            int daysUntilReset = (resetDay - currentDay + 7) % 7;
-            if (daysUntilReset == 0 && now.compareTo(nextReset) >= 0) {
-                daysUntilReset = 7;
+        switch (action) {
+            case "cancel":
+                if (!cancelReset(target)) {
+                    sender.sendMessage(ChatColor.RED + "No pending reset of " + target.getName() + " can be cancelled.");
+                }
+                break;
+            case "postpone":
+                int minutes;
+                try {
+                    minutes = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+                } catch (NumberFormatException e) {
+                    sender.sendMessage(ChatColor.RED + "'" + args[2] + "' is not a number of minutes.");
+                    return;
+                }
+                if (!postponeReset(target, minutes)) {
+                    sender.sendMessage(ChatColor.RED + "The reset of " + target.getName() + " isn't counting down.");
+                }
+                break;
+            default:
+                sender.sendMessage(ChatColor.RED + "Usage: /rwrpending [list|cancel [world]|postpone [world] [minutes]]");
+                break;
+        }
+    }
+
+    private void handleArchiveCommand(CommandSender sender, String[] args) {
+        if (worldArchiver == null) {
+            sender.sendMessage(ChatColor.GRAY + "World archiving is disabled (archive.enabled).");
+            return;
+        }
+        String action = args.length > 0 ? args[0].toLowerCase() : "list";
+        ManagedWorld target = args.length > 1 ? managedWorlds.get(args[1]) : primaryWorld;
+        if (target == null) {
+            sender.sendMessage(ChatColor.RED + "'" + args[1] + "' is not a managed resource world.");
+            return;
+        }
+
+        List<Path> archives = worldArchiver.list(target.getName());
+        switch (action) {
+            case "list":
+                sender.sendMessage(ChatColor.GOLD + "Archives of " + target.getName() + ", newest first:");
+                if (archives.isEmpty()) sender.sendMessage(ChatColor.GRAY + "No archives yet.");
+                for (Path archive : archives) {
+                    long megabytes = archive.toFile().length() / (1024 * 1024);
+                    sender.sendMessage(ChatColor.GRAY + archive.getFileName().toString() + " (" + megabytes + " MB)");
+                }
+                break;
+            case "restore":
+                Path archive = args.length > 2 ? worldArchiver.getArchiveDir().resolve(args[2]) : null;
+                if (archive == null || !archives.contains(archive)) {
+                    sender.sendMessage(ChatColor.RED + "Usage: /rwrarchive restore <world> <archive>, see /rwrarchive list <world>");
+                    return;
+                }
+                restoreArchive(sender, target, archive);
+                break;
+            default:
+                sender.sendMessage(ChatColor.RED + "Usage: /rwrarchive [list [world]|restore <world> <archive>]");
+                break;
+        }
+    }
+
+    /**
+     * Swaps an archived copy of a world in for the current one. The current folder goes through the
+     * trash, so it is archived in turn before it is deleted.
+     */
+    private void restoreArchive(CommandSender sender, ManagedWorld managed, Path archive) {
+        if (managed.isBusy()) {
+            sender.sendMessage(ChatColor.RED + managed.getName() + " can't be restored while it is " + managed.getState().name().toLowerCase() + ".");
+            return;
+        }
+        // Keeps resets away from the world until it is back
+        managed.setState(ManagedWorld.State.RESETTING);
+        sender.sendMessage(ChatColor.GREEN + "Restoring " + managed.getName() + " from " + archive.getFileName() + "...");
+        LogUtil.log(getLogger(), "Restoring " + managed.getName() + " from archive " + archive.getFileName(), Level.INFO);
+
+        World world = Bukkit.getWorld(managed.getName());
+        if (world == null) {
+            swapInArchive(sender, managed, archive);
+            return;
+        }
+        evacuatePlayers(world, moved -> {
+            // Saved, so the archive made of the current world on its way out is up to date
+            if (!Bukkit.unloadWorld(world, true)) {
+                managed.setState(ManagedWorld.State.IDLE);
+                sender.sendMessage(ChatColor.RED + "The server refused to unload " + managed.getName() + ", nothing was restored.");
+                return;
+            }
+            worldManager.unloadWorld(managed.getName(), false);
+            swapInArchive(sender, managed, archive);
+        });
+    }
+
+    private void swapInArchive(CommandSender sender, ManagedWorld managed, Path archive) {
+        String worldName = managed.getName();
+        Path worldFolder = new File(Bukkit.getWorldContainer(), worldName).toPath();
+        Path staging = new File(Bukkit.getWorldContainer(), worldName + ".restoring").toPath();
+        taskScheduler.runAsync(() -> {
+            // Left behind by a restore cut short by a crash
+            if (Files.exists(staging)) WorldTrash.deleteTree(staging);
+            boolean restored = worldArchiver.extract(archive, staging);
+
+            Path trashed = null;
+            if (restored && Files.exists(worldFolder)) {
+                trashed = worldTrash.moveToTrash(worldFolder.toFile());
+                if (trashed == null) restored = false;
             }
-            nextReset = nextReset.plusDays(daysUntilReset);
-            LogUtil.log(getLogger(), "Scheduled weekly reset for " + nextReset, Level.INFO);
-        }
-        // Handle monthly resets
-        else if ("monthly".equals(resetType)) {
-            LocalDateTime nextMonth = now;
-            if (now.getDayOfMonth() > resetDay || (now.getDayOfMonth() == resetDay && now.compareTo(nextReset) >= 0)) {
-                nextMonth = now.plusMonths(1);
+            if (restored) {
+                try {
+                    Files.move(staging, worldFolder);
+                } catch (IOException e) {
+                    LogUtil.log(getLogger(), "Failed to move the restored world into place: " + e.getMessage(), Level.SEVERE);
+                    restored = false;
+                    try {
+                        if (trashed != null) Files.move(trashed, worldFolder);
+                    } catch (IOException moveBack) {
+                        LogUtil.log(getLogger(), "The replaced world is still in the trash at " + trashed, Level.SEVERE);
+                    }
+                }
             }
+            if (!restored) WorldTrash.deleteTree(staging);
+
+            boolean success = restored;
+            taskScheduler.runGlobal(() -> {
+                // Loads the restored world, or the old one again if the swap failed
+                boolean loaded = worldManager.loadWorld(worldName);
+                managed.setState(ManagedWorld.State.IDLE);
+                if (success && loaded) {
+                    Bukkit.broadcastMessage(ChatColor.GREEN + "Resource world " + worldName + " has been restored from an archive.");
+                    LogUtil.log(getLogger(), "Restored " + worldName + " from " + archive.getFileName(), Level.INFO);
+                } else {
+                    sender.sendMessage(ChatColor.RED + "Restoring " + worldName + " failed, check the server log.");
+                    LogUtil.log(getLogger(), "Restoring " + worldName + " from " + archive.getFileName() + " failed"
+                            + (loaded ? ", the previous world was loaded again" : ", the world could not be loaded"), Level.SEVERE);
+                }
+                worldTrash.purgeAsync();
+            });
+        });
+    }
 
-            int maxDay = nextMonth.getMonth().length(nextMonth.toLocalDate().isLeapYear());
-            int actualResetDay = Math.min(resetDay, maxDay);
-            nextReset = nextMonth.withDayOfMonth(actualResetDay).withHour(restartTime).withMinute(0).withSecond(0);
-            LogUtil.log(getLogger(), "Scheduled monthly reset for " + nextReset, Level.INFO);
+    /**
+     * Cancels a reset that is still counting down or waiting in the reset queue.
+     *
+     * @return false if there was nothing to cancel
+     */
+    public boolean cancelReset(ManagedWorld managed) {
+        if (countdownEngine.cancel(managed)) return true;
+        if (resetQueue.remove(managed)) {
+            Bukkit.broadcastMessage(ChatColor.GREEN + "The reset of resource world " + managed.getName() + " has been cancelled.");
+            LogUtil.log(getLogger(), "Queued reset of " + managed.getName() + " cancelled", Level.INFO);
+            return true;
         }
-        // Default to daily reset
-        else {
-            LogUtil.log(getLogger(), "Scheduled daily reset for " + nextReset, Level.INFO);
+        // A running reset can be stopped until it starts removing the old world; finishReset reports it
+        ResetPipeline pipeline = managed.getPipeline();
+        return pipeline != null && pipeline.cancel();
+    }
+
+    public boolean postponeReset(ManagedWorld managed, int minutes) {
+        return minutes > 0 && countdownEngine.postpone(managed, minutes * 60);
+    }
+
+    private void handlePregenCommand(CommandSender sender, String[] args) {
+        if (chunkPregenerator == null) {
+            sender.sendMessage(ChatColor.RED + "Chunk pre-generation is disabled in config.yml.");
+            return;
         }
 
-        // Calculate delay in ticks and schedule the reset task
-        long initialDelayTicks = Math.max(1, ChronoUnit.SECONDS.between(now, nextReset) * 20);
+        String action = args.length > 0 ? args[0].toLowerCase() : "status";
+        switch (action) {
+            case "start":
+                String worldName = args.length > 1 ? args[1] : primaryWorld.getName();
+                World world = Bukkit.getWorld(worldName);
+                if (world == null) {
+                    sender.sendMessage(ChatColor.RED + "World '" + worldName + "' is not loaded.");
+                    return;
+                }
+                chunkPregenerator.start(world);
+                sender.sendMessage(ChatColor.GREEN + "Chunk pre-generation started for " + worldName + ".");
+                break;
+            case "pause":
+                chunkPregenerator.setPaused(true);
+                sender.sendMessage(ChatColor.YELLOW + "Chunk pre-generation paused.");
+                break;
+            case "resume":
+                chunkPregenerator.setPaused(false);
+                sender.sendMessage(ChatColor.GREEN + "Chunk pre-generation resumed.");
+                break;
+            case "stop":
+                chunkPregenerator.stop();
+                sender.sendMessage(ChatColor.YELLOW + "Chunk pre-generation stopped.");
+                break;
+            default:
+                if (!chunkPregenerator.isRunning()) {
+                    sender.sendMessage(ChatColor.GRAY + "No chunk pre-generation is running.");
+                    return;
+                }
+                sender.sendMessage(ChatColor.GOLD + "Pre-generating " + chunkPregenerator.getWorldName()
+                        + (chunkPregenerator.isPaused() ? ChatColor.YELLOW + " (paused)" : ""));
+                sender.sendMessage(ChatColor.GRAY + "Progress: " + String.format("%.1f", chunkPregenerator.getProgressPercent())
+                        + "% (" + chunkPregenerator.getGenerated() + " chunks generated)");
+                sender.sendMessage(ChatColor.GRAY + "Rate: " + String.format("%.1f", chunkPregenerator.getChunksPerSecond())
+                        + " chunks/sec, ETA " + chunkPregenerator.getEtaDisplay()
+                        + ", budget " + String.format("%.1f", chunkPregenerator.getBudgetMillis()) + "ms/tick");
+                break;
+        }
+    }
 
-        // Improved logging for debug purposes
-        LogUtil.log(getLogger(), "Next reset scheduled in " + (initialDelayTicks/20/60) + " minutes (" +
-                (initialDelayTicks/20/60/60) + " hours)", Level.INFO);
+    private void startPregeneration(ManagedWorld managed) {
+        if (chunkPregenerator == null) return;
+        World world = Bukkit.getWorld(managed.getName());
+        if (world != null) {
+            if (managed.getTimings() != null) managed.getTimings().begin(ResetTimings.Phase.WARMUP);
+            chunkPregenerator.enqueue(world);
+        }
+    }
 
-        Bukkit.getScheduler().runTaskLater(this, () -> {
-            LogUtil.log(getLogger(), "Executing scheduled reset task", Level.INFO);
-            resetResourceWorld();
+    private void onPregenerationFinished(String worldName, long chunks) {
+        ManagedWorld managed = managedWorlds.get(worldName);
+        ResetTimings timings = managed != null ? managed.getTimings() : null;
+        long warmupMillis = 0;
+        if (timings != null) {
+            // Includes time spent waiting behind other pre-generation jobs
+            timings.end(ResetTimings.Phase.WARMUP);
+            timings.setChunksGenerated(chunks);
+            warmupMillis = timings.getMillis(ResetTimings.Phase.WARMUP);
+            LogUtil.log(getLogger(), "Warm-up of " + worldName + " took " + warmupMillis + "ms", Level.INFO);
+        }
+        resetMetrics.recordWarmup(worldName, warmupMillis, chunks);
+    }
 
-            // Reschedule next reset after completion
-            Bukkit.getScheduler().runTaskLater(this, this::scheduleDailyReset, 100);
-        }, initialDelayTicks);
+    private void scheduleDailyReset() {
+        resetScheduler.refresh(managedWorlds.values());
     }
 
     public void resetResourceWorld() {
+        resetResourceWorld(primaryWorld);
+    }
+
+    public void resetResourceWorld(ManagedWorld managed) {
+        String worldName = managed.getName();
+        if (managed.isBusy()) {
+            LogUtil.log(getLogger(), "Reset of " + worldName + " already in progress (" + managed.getState() + "), ignoring", Level.WARNING);
+            return;
+        }
+
         World world = Bukkit.getWorld(worldName);
         if (world == null) {
             LogUtil.log(getLogger(), "World '" + worldName + "' not found! Attempting to create it...", Level.WARNING);
-            ensureResourceWorldExists();
+            ensureWorldExists(managed);
             world = Bukkit.getWorld(worldName);
 
             if (world == null) {
@@ -204,114 +628,432 @@ public class ResourceWorldResetter extends JavaPlugin {
             }
         }
 
+        ResetTimings timings = new ResetTimings();
+        managed.setTimings(timings);
+
         // Warn players before reset if warning time is set
+        int resetWarningTime = managed.getResetWarningTime();
         if (resetWarningTime > 0) {
-            Bukkit.broadcastMessage(ChatColor.YELLOW + "Resource world will reset in " + resetWarningTime + " minutes!");
+            timings.begin(ResetTimings.Phase.WARNING);
+
+            // Queue the actual reset once the countdown runs out
+            countdownEngine.start(managed, resetWarningTime * 60, () -> {
+                timings.end(ResetTimings.Phase.WARNING);
+                resetQueue.enqueue(managed);
+            });
 
-            // Schedule actual reset after warning time
-            Bukkit.getScheduler().runTaskLater(this, () -> {
-                performReset(world);
-            }, resetWarningTime * 60 * 20); // Convert minutes to ticks
+            LogUtil.log(getLogger(), "Reset of " + worldName + " scheduled after " + resetWarningTime + " minute warning", Level.INFO);
+        } else {
+            resetQueue.enqueue(managed);
+        }
+    }
 
-            LogUtil.log(getLogger(), "Reset scheduled after " + resetWarningTime + " minute warning", Level.INFO);
+    /**
+     * Runs the reset of a world taken from the reset queue as a pipeline of stages. The callback is run
+     * on the main thread once the world is back, the reset has failed or it was cancelled.
+     */
+    private void performReset(ManagedWorld managed, Runnable done) {
+        ResetRun run = new ResetRun(managed);
+        ResetPipeline pipeline = new ResetPipeline(this, taskScheduler, taskBudget, resetJournal, managed.getName(), managed.getTimings(),
+                finished -> finishReset(run, finished, done));
+        pipeline.stage(ResetPipeline.Stage.PREPARE, ResetPipeline.Runs.MAIN, stageTimeout("prepare", 30), context -> prepareStage(run, context))
+                .stage(ResetPipeline.Stage.EVACUATE, ResetPipeline.Runs.MAIN, stageTimeout("evacuate", 120), context -> evacuateStage(run, context),
+                        () -> {
+                            if (run.evacuation != null) run.evacuation.cancel();
+                        })
+                .stage(ResetPipeline.Stage.UNLOAD, ResetPipeline.Runs.MAIN, stageTimeout("unload", 60), context -> unloadStage(run, context),
+                        () -> reloadWorld(run))
+                .stage(ResetPipeline.Stage.REMOVE, ResetPipeline.Runs.IO, stageTimeout("remove", 900), context -> removeStage(run, context))
+                .stage(ResetPipeline.Stage.CREATE, ResetPipeline.Runs.MAIN, stageTimeout("create", 300), context -> createStage(run, context))
+                .stage(ResetPipeline.Stage.WARMUP, ResetPipeline.Runs.MAIN, stageTimeout("warmup", 30), context -> {
+                    startPregeneration(managed);
+                    context.complete();
+                });
+        managed.setPipeline(pipeline);
+        Runnable start = () -> {
+            stallWatchdog.resetStarted(managed.getName());
+            pipeline.start();
+        };
+        // The pipeline stays pending, and can be cancelled, until the other servers let this one reset
+        if (resetCoordinator != null) {
+            resetCoordinator.acquire(managed.getName(), start);
         } else {
-            performReset(world);
+            start.run();
         }
     }
 
-    private void performReset(World world) {
-        double tpsBefore = getServerTPS();
-        long startTime = System.currentTimeMillis();
+    private long stageTimeout(String stage, long defaultSeconds) {
+        return Math.max(0, getConfig().getLong("stageTimeouts." + stage, defaultSeconds));
+    }
 
-        LogUtil.log(getLogger(), "Starting world reset process for " + worldName, Level.INFO);
-        teleportPlayersSafely(world);
+    private void prepareStage(ResetRun run, ResetPipeline.StageContext context) {
+        run.tpsBefore = getServerTPS();
+        run.startTime = System.currentTimeMillis();
+        LogUtil.log(getLogger(), "Starting world reset process for " + run.worldName + ", tick times over the last "
+                + tickWindows.get(0) + "s: " + tickMonitor.getStats(tickWindows.get(0)).describe(), Level.INFO);
 
-        MVWorldManager worldManager = core.getMVWorldManager();
-        if (!worldManager.unloadWorld(worldName)) {
-            LogUtil.log(getLogger(), "Failed to unload world: " + worldName + ". Retrying with forced unload.", Level.WARNING);
+        // The kind of reset is fixed up front so every later stage agrees on it
+        if (run.managed.getRegionPruner() != null) {
+            run.mode = ResetRun.Mode.PARTIAL;
+        }
+        context.complete();
+    }
+
+    private void evacuateStage(ResetRun run, ResetPipeline.StageContext context) {
+        World world = Bukkit.getWorld(run.worldName);
+        if (world == null) {
+            context.complete();
+            return;
+        }
+        run.evacuation = evacuatePlayers(world, moved -> {
+            run.managed.getTimings().setPlayersMoved(moved);
+            context.complete();
+        });
+    }
+
+    private void unloadStage(ResetRun run, ResetPipeline.StageContext context) {
+        World world = Bukkit.getWorld(run.worldName);
+
+        // A partial reset keeps chunks and an archived world keeps them in its archive, so only then is the
+        // world saved on the way out; otherwise every chunk written now would be deleted moments later
+        if (world == null) {
+            // Not loaded, e.g. when finishing a reset interrupted by a crash; drop any Multiverse entry left behind
+            worldManager.unloadWorld(run.worldName, false);
+        } else if (run.mode != ResetRun.Mode.PARTIAL) {
+            if (!Bukkit.unloadWorld(world, worldArchiver != null)) {
+                context.fail("the server refused to unload the world");
+                return;
+            }
+            worldManager.unloadWorld(run.worldName, false);
+        } else if (!worldManager.unloadWorld(run.worldName)) {
+            LogUtil.log(getLogger(), "Failed to unload world: " + run.worldName + ". Retrying with forced unload.", Level.WARNING);
 
             // Try forcing world unload if normal unload fails
-            if (!worldManager.unloadWorld(worldName, true)) {
-                LogUtil.log(getLogger(), "Forced unload also failed. Aborting reset.", Level.SEVERE);
+            if (!worldManager.unloadWorld(run.worldName, true)) {
+                context.fail("the world could not be unloaded");
                 return;
             }
         }
 
-        CompletableFuture.runAsync(() -> {
-            File worldFolder = new File(Bukkit.getWorldContainer(), worldName);
-            LogUtil.log(getLogger(), "Deleting world folder: " + worldFolder.getAbsolutePath(), Level.INFO);
+        StandbyWorld standby = run.managed.getStandbyWorld();
+        if (run.mode == ResetRun.Mode.FULL && standby != null && standby.isReady()) {
+            run.mode = ResetRun.Mode.STANDBY;
+        }
+        context.complete();
+    }
 
-            if (deleteFolder(worldFolder)) {
-                Bukkit.getScheduler().runTask(this, () -> {
-                    LogUtil.log(getLogger(), "World folder deleted, recreating world", Level.INFO);
-                    recreateWorld(worldManager);
-                    long duration = System.currentTimeMillis() - startTime;
-                    double tpsAfter = getServerTPS();
-                    Bukkit.broadcastMessage(ChatColor.GREEN + "Resource world reset completed in " + duration + "ms (TPS: " + String.format("%.2f", tpsBefore) + " → " + String.format("%.2f", tpsAfter) + ").");
-                    LogUtil.log(getLogger(), "Resource world reset completed in " + duration + "ms", Level.INFO);
-                });
+    /**
+     * Finishes or rolls back the resets the reset journal shows were cut short when the server last stopped.
+     */
+    private void recoverInterruptedResets() {
+        for (ResetJournal.Unfinished reset : resetJournal.readUnfinished()) {
+            String worldName = reset.worldName();
+            String stage = reset.stage().name().toLowerCase();
+            ManagedWorld managed = managedWorlds.get(worldName);
+            if (managed == null) {
+                resetJournal.notice("The reset of " + worldName + " was interrupted during the " + stage
+                        + " stage, but it is no longer a managed world and was left as it is");
+            } else if (!reset.committed() || reset.stage() == ResetPipeline.Stage.WARMUP) {
+                // The old world was never touched, or the new one was already in place
+                if (Bukkit.getWorld(worldName) == null) worldManager.loadWorld(worldName);
+                resetJournal.notice("The reset of " + worldName + " was interrupted during the " + stage + " stage, "
+                        + (reset.committed() ? "after the new world was created; it was kept" : "before the old world was touched; it was kept unchanged"));
+            } else if (managed.getRegionPruner() != null) {
+                if (Bukkit.getWorld(worldName) == null) worldManager.loadWorld(worldName);
+                resetJournal.notice("The partial reset of " + worldName + " was interrupted during the " + stage
+                        + " stage; the world was loaded again and some areas may not have been reset");
+            } else {
+                resetJournal.notice("The reset of " + worldName + " was interrupted during the " + stage
+                        + " stage while the old world was being replaced; the reset is being run again");
+                managed.setTimings(new ResetTimings());
+                resetQueue.enqueue(managed);
+            }
+        }
+    }
+
+    /**
+     * Undoes the unload stage when the reset is cancelled or fails before the old world is touched.
+     */
+    private void reloadWorld(ResetRun run) {
+        if (Bukkit.getWorld(run.worldName) != null) return;
+        if (worldManager.loadWorld(run.worldName)) {
+            LogUtil.log(getLogger(), "Reloaded " + run.worldName + " unchanged", Level.INFO);
+        } else {
+            LogUtil.log(getLogger(), "Failed to reload " + run.worldName + " after the aborted reset", Level.SEVERE);
+        }
+    }
+
+    private void removeStage(ResetRun run, ResetPipeline.StageContext context) {
+        File worldFolder = new File(Bukkit.getWorldContainer(), run.worldName);
+        ResetTimings timings = run.managed.getTimings();
+        if (!context.commit()) return;
+
+        if (run.mode == ResetRun.Mode.PARTIAL) {
+            RegionPruner regionPruner = run.managed.getRegionPruner();
+            LogUtil.log(getLogger(), "Deleting region files outside the kept areas in " + worldFolder.getAbsolutePath(), Level.INFO);
+            long backoffs = deletionThrottle.getBackoffs();
+            run.pruned = regionPruner.prune(worldFolder, deletionThrottle);
+            timings.setFilesDeleted(regionPruner.getDeletedFiles());
+            timings.setBytesDeleted(regionPruner.getDeletedBytes());
+            backoffs = deletionThrottle.getBackoffs() - backoffs;
+            if (backoffs > 0) {
+                LogUtil.log(getLogger(), "Backed off " + backoffs + " times for slow ticks while deleting region files", Level.INFO);
+            }
+            context.complete();
+            return;
+        }
+
+        boolean removed = false;
+        // Archiving happens on the trash pool, so the reset doesn't wait for it
+        if ("trash".equalsIgnoreCase(deletionMode) || run.mode == ResetRun.Mode.STANDBY || worldArchiver != null) {
+            removed = worldTrash.moveToTrash(worldFolder) != null;
+            if (removed) {
+                worldTrash.purgeAsync();
             } else {
-                LogUtil.log(getLogger(), "Failed to delete world folder: " + worldName, Level.SEVERE);
-                Bukkit.getScheduler().runTask(this, () -> {
-                    Bukkit.broadcastMessage(ChatColor.RED + "Resource world reset failed! Check server logs for details.");
+                LogUtil.log(getLogger(), "Falling back to deleting the world folder in place", Level.WARNING);
+            }
+        }
+
+        if (!removed && worldArchiver != null && worldArchiver.archive(worldFolder.toPath(), run.worldName) == null) {
+            // Deleting now would lose the world for good
+            context.fail("could not archive " + worldFolder.getAbsolutePath());
+            return;
+        }
+        if (!removed) {
+            LogUtil.log(getLogger(), "Deleting world folder: " + worldFolder.getAbsolutePath(), Level.INFO);
+            long backoffs = deletionThrottle.getBackoffs();
+            WorldTrash.Deletion deletion = worldTrash.delete(worldFolder.toPath());
+            timings.setFilesDeleted(deletion.files());
+            timings.setBytesDeleted(deletion.bytes());
+            backoffs = deletionThrottle.getBackoffs() - backoffs;
+            LogUtil.log(getLogger(), "Deleted world folder " + run.worldName + ": " + deletion.describe()
+                    + (backoffs > 0 ? ", backed off " + backoffs + " times for slow ticks" : ""), Level.INFO);
+            removed = !worldFolder.exists();
+        }
+
+        if (!removed) {
+            context.fail("could not delete " + worldFolder.getAbsolutePath());
+            return;
+        }
+        context.complete();
+    }
+
+    private void createStage(ResetRun run, ResetPipeline.StageContext context) {
+        ResetTimings timings = run.managed.getTimings();
+        switch (run.mode) {
+            case PARTIAL -> {
+                // The world is still registered with Multiverse, only unloaded
+                if (!worldManager.loadWorld(run.worldName)) {
+                    context.fail("the world could not be loaded again");
+                    return;
+                }
+                if (!run.pruned) {
+                    LogUtil.log(getLogger(), "Some region files could not be deleted, those areas were not reset", Level.WARNING);
+                }
+                context.complete();
+            }
+            case STANDBY -> {
+                StandbyWorld standby = run.managed.getStandbyWorld();
+                long swapStart = System.currentTimeMillis();
+                if (standby.swapIn()) {
+                    run.swapMillis = System.currentTimeMillis() - swapStart;
+                    // The standby world was generated and warmed up before the reset started
+                    timings.set(ResetTimings.Phase.WARMUP, standby.getGenerationMillis());
+                    context.complete();
+                    return;
+                }
+                LogUtil.log(getLogger(), "Standby swap failed, regenerating the resource world", Level.WARNING);
+                run.mode = ResetRun.Mode.FULL;
+                createFresh(run, context);
+            }
+            case FULL -> {
+                if (templateCopier == null) {
+                    createFresh(run, context);
+                    return;
+                }
+                // Copying the template counts towards creating the world
+                String templateFolder = getConfig().getString("template.folder", "templates");
+                context.onIo(() -> {
+                    File worldFolder = new File(Bukkit.getWorldContainer(), run.worldName);
+                    if (!templateCopier.copy(Paths.get(templateFolder, run.worldName), worldFolder.toPath())) {
+                        LogUtil.log(getLogger(), "Template copy failed, generating a new world instead", Level.WARNING);
+                    }
+                    context.onMain(() -> createFresh(run, context));
                 });
             }
-        });
+        }
     }
 
+    private void createFresh(ResetRun run, ResetPipeline.StageContext context) {
+        LogUtil.log(getLogger(), "World folder removed, recreating world " + run.worldName, Level.INFO);
+        if (recreateWorld(worldManager, run.managed)) {
+            context.complete();
+        } else {
+            context.fail("the world could not be created");
+        }
+    }
+
+    private void finishReset(ResetRun run, ResetPipeline pipeline, Runnable done) {
+        ManagedWorld managed = run.managed;
+        managed.setPipeline(null);
+        String worldName = run.worldName;
+        stallWatchdog.resetFinished(worldName);
+        if (resetCoordinator != null) resetCoordinator.release(worldName);
+
+        if (pipeline.getState() == ResetPipeline.State.CANCELLED) {
+            Bukkit.broadcastMessage(ChatColor.GREEN + "The reset of resource world " + worldName + " has been cancelled.");
+            done.run();
+            return;
+        }
+        if (pipeline.getState() == ResetPipeline.State.FAILED) {
+            Bukkit.broadcastMessage(ChatColor.RED + "Resource world " + worldName + " reset failed! Check server logs for details.");
+            completeReset(managed, false, done);
+            return;
+        }
+
+        long duration = System.currentTimeMillis() - run.startTime;
+        String tps = "TPS: " + String.format("%.2f", run.tpsBefore) + " → " + String.format("%.2f", getServerTPS());
+        switch (run.mode) {
+            case PARTIAL -> {
+                Bukkit.broadcastMessage(ChatColor.GREEN + "Resource world " + worldName + " partially reset in " + duration
+                        + "ms (protected areas kept, " + tps + ").");
+                LogUtil.log(getLogger(), "Partial reset of " + worldName + " completed in " + duration + "ms, "
+                        + managed.getRegionPruner().getDeletedFiles() + " region files deleted", Level.INFO);
+            }
+            case STANDBY -> {
+                long generationMillis = managed.getStandbyWorld().getGenerationMillis();
+                Bukkit.broadcastMessage(ChatColor.GREEN + "Resource world " + worldName + " reset completed in " + duration + "ms (swap: "
+                        + run.swapMillis + "ms, standby generated beforehand in " + generationMillis + "ms, " + tps + ").");
+                LogUtil.log(getLogger(), "Resource world " + worldName + " swapped in from standby in " + run.swapMillis + "ms (total "
+                        + duration + "ms, standby generation " + generationMillis + "ms)", Level.INFO);
+            }
+            case FULL -> {
+                Bukkit.broadcastMessage(ChatColor.GREEN + "Resource world " + worldName + " reset completed in " + duration + "ms (" + tps + ").");
+                LogUtil.log(getLogger(), "Resource world " + worldName + " reset completed in " + duration + "ms", Level.INFO);
+            }
+        }
+        logTickStats(managed, run.startTime);
+        completeReset(managed, true, done);
+    }
+
+    // What one reset has found out and decided so far, shared by its stages
+    private static class ResetRun {
+        enum Mode { FULL, PARTIAL, STANDBY }
+
+        private final ManagedWorld managed;
+        private final String worldName;
+        private volatile Mode mode = Mode.FULL;
+        private volatile long startTime;
+        private volatile double tpsBefore;
+        private volatile boolean pruned;
+        private volatile long swapMillis;
+        private Evacuation evacuation;
+
+        private ResetRun(ManagedWorld managed) {
+            this.managed = managed;
+            this.worldName = managed.getName();
+        }
+    }
+
+    /**
+     * Logs the phase timings of a finished reset, records them for the metrics endpoint and releases the reset queue.
+     */
+    private void completeReset(ManagedWorld managed, boolean success, Runnable done) {
+        ResetTimings timings = managed.getTimings();
+        String deleted = timings.getFilesDeleted() + " files / " + (timings.getBytesDeleted() / (1024 * 1024)) + " MB deleted";
+        double deleteSeconds = timings.getSeconds(ResetTimings.Phase.DELETE);
+        if (timings.getBytesDeleted() > 0 && deleteSeconds > 0) {
+            deleted += String.format(" at %.1f MB/s", timings.getBytesDeleted() / (1024.0 * 1024.0) / deleteSeconds);
+        }
+        LogUtil.log(getLogger(), "Reset phases of " + managed.getName() + ": " + timings.describe() + ", "
+                + timings.getPlayersMoved() + " players moved, " + deleted, Level.INFO);
+        resetMetrics.recordReset(managed.getName(), timings, success);
+        if (success) resetScheduler.recordReset(managed);
+        done.run();
+    }
+
+    /**
+     * Average TPS over the first configured tick monitor window.
+     */
     public double getServerTPS() {
-        try {
-            Object mcServer = Bukkit.getServer().getClass().getMethod("getServer").invoke(Bukkit.getServer());
-            double[] recentTps = (double[]) mcServer.getClass().getField("recentTps").get(mcServer);
-            return recentTps[0];
-        } catch (Exception e) {
-            getLogger().warning("Failed to get server TPS. Defaulting to 20.0");
-            return 20.0;
+        return tickMonitor.getTps(tickWindows.get(0));
+    }
+
+    private void logTickStats(ManagedWorld managed, long startTime) {
+        int seconds = (int) ((System.currentTimeMillis() - startTime) / 1000) + 1;
+        LogUtil.log(getLogger(), "Tick times during reset of " + managed.getName() + ": "
+                + tickMonitor.getStats(seconds).describe(), Level.INFO);
+    }
+
+    /**
+     * Moves every player out of the world in batches and calls back with the number moved once it is empty.
+     *
+     * @return the running evacuation, which can be cancelled
+     */
+    public Evacuation evacuatePlayers(World world, IntConsumer onDone) {
+        Evacuation evacuation = new Evacuation(this, taskScheduler, world,
+                Evacuation.resolveDestinations(getConfig().getStringList("evacuation.safePoints"), world),
+                getConfig().getInt("evacuation.playersPerTick", 10),
+                getConfig().getDouble("evacuation.maxMillisPerTick", 5),
+                getConfig().getInt("evacuation.timeoutSeconds", 30),
+                onDone);
+        if (resetCoordinator != null && getConfig().getBoolean("coordination.routePlayers", true)) {
+            evacuation.setTransfer(resetCoordinator::transfer);
         }
+        evacuation.start();
+        return evacuation;
     }
 
-    public void teleportPlayersSafely(World world) {
-        World defaultWorld = Bukkit.getWorlds().get(0); // Get server's default world
-        Location spawn = defaultWorld.getSpawnLocation();
+    private ResetCoordinator createCoordinator() {
+        String serverId = getConfig().getString("coordination.serverId", "");
+        if (serverId.isEmpty()) {
+            serverId = "server-" + getServer().getPort();
+            LogUtil.log(getLogger(), "coordination.serverId is not set, using '" + serverId + "'; players can only be "
+                    + "sent to servers whose id matches their name in the proxy config", Level.WARNING);
+        }
+        int heartbeatSeconds = Math.max(1, getConfig().getInt("coordination.heartbeatSeconds", 5));
+        // Peers not heard from for three heartbeats are considered gone
+        long staleMillis = heartbeatSeconds * 3000L;
 
-        for (Player player : world.getPlayers()) {
-            player.teleport(spawn);
-            player.sendMessage(ChatColor.GREEN + "You have been teleported to safety - the resource world is being reset.");
-            LogUtil.log(getLogger(), "Teleported " + player.getName() + " out of resource world", Level.INFO);
+        CoordinationBackend backend;
+        if ("messaging".equalsIgnoreCase(getConfig().getString("coordination.backend", "directory"))) {
+            backend = new PluginMessagingBackend(this, taskScheduler, serverId, staleMillis, heartbeatSeconds * 2000L);
+        } else {
+            backend = new SharedDirectoryBackend(getLogger(), serverId,
+                    Paths.get(getConfig().getString("coordination.directory", "plugins/ResourceWorldResetter/coordination")),
+                    staleMillis);
         }
+        return new ResetCoordinator(this, taskScheduler, backend, serverId, heartbeatSeconds,
+                getConfig().getInt("coordination.leaseSeconds", 60),
+                getConfig().getInt("coordination.maxWaitMinutes", 30));
     }
 
-    public void recreateWorld(MVWorldManager worldManager) {
-        boolean success = worldManager.addWorld(
-                worldName,
-                World.Environment.NORMAL,
-                null,
-                WorldType.NORMAL,
-                true,
-                "DEFAULT"
-        );
+    public boolean recreateWorld(MVWorldManager worldManager, ManagedWorld managed) {
+        boolean success = managed.create(worldManager, managed.getName());
 
         if (success) {
-            Bukkit.broadcastMessage(ChatColor.GREEN + "The resource world has been reset!");
+            Bukkit.broadcastMessage(ChatColor.GREEN + "The resource world " + managed.getName() + " has been reset!");
             LogUtil.log(getLogger(), "World recreation successful", Level.INFO);
         } else {
-            Bukkit.broadcastMessage(ChatColor.RED + "Failed to recreate the resource world!");
-            LogUtil.log(getLogger(), "Failed to recreate world: " + worldName, Level.SEVERE);
+            Bukkit.broadcastMessage(ChatColor.RED + "Failed to recreate the resource world " + managed.getName() + "!");
+            LogUtil.log(getLogger(), "Failed to recreate world: " + managed.getName(), Level.SEVERE);
         }
+        return success;
     }
 
     public void ensureResourceWorldExists() {
-        MVWorldManager worldManager = core.getMVWorldManager();
+        for (ManagedWorld world : managedWorlds.values()) {
+            // A world in the middle of a reset is brought back by the reset itself
+            if (world.isBusy()) continue;
+            ensureWorldExists(world);
+        }
+    }
+
+    private void ensureWorldExists(ManagedWorld managed) {
+        String worldName = managed.getName();
         if (!worldManager.isMVWorld(worldName)) {
             LogUtil.log(getLogger(), "Resource world doesn't exist, creating: " + worldName, Level.INFO);
-            boolean success = worldManager.addWorld(
-                    worldName,
-                    World.Environment.NORMAL,
-                    null,
-                    WorldType.NORMAL,
-                    true,
-                    "DEFAULT"
-            );
+            boolean success = managed.create(worldManager, worldName);
             LogUtil.log(getLogger(), "Created resource world: " + worldName + ", Success: " + success, Level.INFO);
         } else {
             LogUtil.log(getLogger(), "Resource world exists: " + worldName, Level.INFO);
@@ -319,14 +1061,101 @@ public class ResourceWorldResetter extends JavaPlugin {
     }
 
     public void loadConfig() {
+        // Staged changes would be lost by the reload otherwise
+        configSaver.flush();
         reloadConfig();
-        worldName = getConfig().getString("worldName", "Resources");
-        restartTime = getConfig().getInt("restartTime", 3);
-        resetWarningTime = getConfig().getInt("resetWarningTime", 5);
-        resetType = getConfig().getString("resetType", "daily");
-        resetDay = getConfig().getInt("resetDay", 1);
-
-        LogUtil.log(getLogger(), "Configuration loaded: worldName=" + worldName +
-                ", resetType=" + resetType + ", restartTime=" + restartTime, Level.INFO);
+        configSaver.setQuietSeconds(getConfig().getInt("configSaveDelaySeconds", 3));
+        deletionMode = getConfig().getString("deletionMode", "delete");
+        taskBudget.configure(getConfig().getBoolean("taskBudget.enabled", false),
+                getConfig().getDouble("taskBudget.maxMillis", 5),
+                getConfig().getLong("taskBudget.maxAllocatedKb", 1024));
+        stallWatchdog.configure(getConfig().getBoolean("stallWatchdog.enabled", true),
+                getConfig().getLong("stallWatchdog.thresholdMillis", 100),
+                getConfig().getLong("stallWatchdog.sampleIntervalMillis", 10));
+        if (worldArchiver != null) configureArchiver();
+        deletionThrottle.configure(getConfig().getDouble("deletion.filesPerSecond", 2000),
+                getConfig().getDouble("deletion.megabytesPerSecond", 100) * 1024 * 1024,
+                getConfig().getDouble("deletion.targetTickMillis", 40));
+        tickWindows = getConfig().getIntegerList("tickMonitor.windows");
+        if (tickWindows.isEmpty()) tickWindows = List.of(10, 60, 300);
+        resetQueue.configure(getConfig().getInt("resetQueue.maxConcurrent", 1),
+                getConfig().getLong("resetQueue.delayBetweenSeconds", 10));
+        countdownEngine.configure(getConfig().getIntegerList("countdown.warnings"),
+                getConfig().getString("countdown.display", "bossbar"),
+                getConfig().getInt("countdown.displaySeconds", 60));
+        resetScheduler.configure(getConfig().getString("schedule.timezone", ""),
+                getConfig().getInt("standby.leadMinutes", 30),
+                getConfig().getString("schedule.missedResetPolicy", "run"),
+                getConfig().getInt("schedule.missedResetMaxAgeHours", 24));
+        resetScheduler.configureWindow(getConfig().getBoolean("schedule.window.enabled", false)
+                        ? getConfig().getInt("schedule.window.lengthMinutes", 240) : 0,
+                getConfig().getInt("schedule.window.maxPlayers", 5),
+                getConfig().getDouble("schedule.window.maxTickMillis", 40),
+                getConfig().getInt("schedule.window.tickSeconds", 60),
+                getConfig().getBoolean("schedule.window.learnFromHistory", true));
+        resetScheduler.setOffset(staggerOffset());
+        loadWorlds();
+
+        LogUtil.log(getLogger(), "Configuration loaded: worldName=" + primaryWorld.getName() +
+                ", resetType=" + primaryWorld.getResetType() + ", restartTime=" + primaryWorld.getRestartTime() +
+                ", managedWorlds=" + managedWorlds.keySet(), Level.INFO);
+    }
+
+    private void configureArchiver() {
+        worldArchiver.configure(getConfig().getInt("archive.compressionLevel", 1),
+                getConfig().getInt("archive.keepCount", 3),
+                getConfig().getInt("archive.maxAgeDays", 14));
+    }
+
+    /**
+     * How far this server's resets are pushed back so servers sharing a schedule don't reset at once:
+     * its position in coordination.servers times the stagger.
+     */
+    private Duration staggerOffset() {
+        if (!getConfig().getBoolean("coordination.enabled", false)) return Duration.ZERO;
+        int index = getConfig().getStringList("coordination.servers").indexOf(getConfig().getString("coordination.serverId", ""));
+        return Duration.ofMinutes(Math.max(0, index) * (long) Math.max(0, getConfig().getInt("coordination.staggerMinutes", 10)));
+    }
+
+    /**
+     * Rebuilds the managed world list from the current config. Worlds that are still configured keep
+     * their object, so a reset in progress isn't disturbed by a reload.
+     */
+    private void loadWorlds() {
+        Map<String, ManagedWorld> loaded = new LinkedHashMap<>();
+
+        String primaryName = getConfig().getString("worldName", "Resources");
+        primaryWorld = managedWorlds.getOrDefault(primaryName, new ManagedWorld(primaryName));
+        primaryWorld.load(getConfig(), null, getLogger());
+        loaded.put(primaryName, primaryWorld);
+
+        ConfigurationSection worlds = getConfig().getConfigurationSection("worlds");
+        if (worlds != null) {
+            for (String name : worlds.getKeys(false)) {
+                ConfigurationSection section = worlds.getConfigurationSection(name);
+                if (section == null || loaded.containsKey(name)) continue;
+
+                ManagedWorld world = managedWorlds.getOrDefault(name, new ManagedWorld(name));
+                world.load(section, primaryWorld, getLogger());
+                loaded.put(name, world);
+            }
+        }
+
+        managedWorlds.clear();
+        managedWorlds.putAll(loaded);
+
+        boolean standbyEnabled = getConfig().getBoolean("standby.enabled", false);
+        for (ManagedWorld world : managedWorlds.values()) {
+            if (standbyEnabled && world.getStandbyWorld() == null) {
+                world.setStandbyWorld(new StandbyWorld(this, taskScheduler, worldManager, world,
+                        getConfig().getInt("standby.warmupRadius", 8),
+                        getConfig().getInt("standby.chunksPerTick", 2)));
+            } else if (!standbyEnabled) {
+                world.setStandbyWorld(null);
+            }
+        }
+
+        // The admin menus cache the settings they show; it doesn't exist yet during the first load
+        if (adminGUI != null) adminGUI.invalidateSettings();
     }
 }
@@ -0,0 +1,48 @@
+package com.lozaine.ResourceWorldResetter.coordination;
+
+import java.util.Collection;
+
+/**
+ * How the servers behind a proxy share the reset lease, which lets one of them reset at a time, and tell
+ * each other whether they are resetting. Apart from {@link #start()} and {@link #stop()}, methods are
+ * called from a background thread, one call at a time.
+ */
+public interface CoordinationBackend {
+    /**
+     * Advertised state of one server.
+     *
+     * @param updatedAt when the server last sent it, in epoch milliseconds
+     */
+    record ServerStatus(String serverId, boolean resetting, int players, long updatedAt) {
+    }
+
+    /**
+     * Called on the main thread when coordination is enabled.
+     */
+    void start();
+
+    /**
+     * Called on the main thread on shutdown. Gives up the lease if this server holds it.
+     */
+    void stop();
+
+    /**
+     * Advertises this server's status and refreshes what is known about the others.
+     */
+    void heartbeat(ServerStatus status);
+
+    /**
+     * Takes the reset lease, or renews it if this server already holds it.
+     *
+     * @param leaseMillis how long the lease stays valid without being renewed
+     * @return true if this server holds the lease
+     */
+    boolean tryAcquire(long leaseMillis);
+
+    void release();
+
+    /**
+     * Returns the last known status of the other servers, leaving out those not heard from in a while.
+     */
+    Collection<ServerStatus> getPeers();
+}
@@ -0,0 +1,224 @@
+package com.lozaine.ResourceWorldResetter.coordination;
+
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coordinates through the proxy's BungeeCord plugin messaging channel, which Velocity also supports,
+ * by forwarding messages to every other server. There is no shared store to hold a lease in, so a server
+ * that wants to reset broadcasts a claim, waits a settle period for earlier claims, and holds the lease if
+ * its claim is the oldest one still being renewed. Messages can only travel through a connected player,
+ * so servers without players don't hear or get heard; the lease is best effort and the shared directory
+ * backend should be used where a strict one is needed. The latest message of each kind sent while nobody
+ * is online, e.g. the release after a reset that moved every player to another server, goes out when a
+ * player joins.
+ */
+public class PluginMessagingBackend implements CoordinationBackend, PluginMessageListener, Listener {
+    public static final String CHANNEL = "BungeeCord";
+    private static final String SUBCHANNEL = "ResourceWorldResetter";
+
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final String serverId;
+    private final long staleMillis;
+    private final long settleMillis;
+    private final Map<String, ServerStatus> peers = new ConcurrentHashMap<>();
+    private final Map<String, Claim> claims = new ConcurrentHashMap<>();
+    // Main thread only
+    private final Map<String, byte[]> unsent = new LinkedHashMap<>();
+    private volatile long claimedAt;
+    private volatile boolean holding;
+
+    /**
+     * @param staleMillis  how long a server may go without a heartbeat before it is left out of the peers
+     * @param settleMillis how long a claim is announced before it is acted on
+     */
+    public PluginMessagingBackend(Plugin plugin, TaskScheduler scheduler, String serverId, long staleMillis, long settleMillis) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.serverId = serverId;
+        this.staleMillis = staleMillis;
+        this.settleMillis = settleMillis;
+    }
+
+    @Override
+    public void start() {
+        Bukkit.getMessenger().registerOutgoingPluginChannel(plugin, CHANNEL);
+        Bukkit.getMessenger().registerIncomingPluginChannel(plugin, CHANNEL, this);
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+    }
+
+    @Override
+    public void stop() {
+        release();
+        Bukkit.getMessenger().unregisterIncomingPluginChannel(plugin);
+    }
+
+    @Override
+    public void heartbeat(ServerStatus status) {
+        long now = System.currentTimeMillis();
+        peers.values().removeIf(peer -> now - peer.updatedAt() > staleMillis);
+        claims.values().removeIf(claim -> claim.expiresAt < now);
+
+        broadcast("STATUS", out -> {
+            out.writeBoolean(status.resetting());
+            out.writeInt(status.players());
+        });
+        // Claims are repeated with every heartbeat, which renews them and reaches servers that joined later
+        long claim = claimedAt;
+        if (claim != 0) broadcastClaim(claim);
+    }
+
+    @Override
+    public boolean tryAcquire(long leaseMillis) {
+        long now = System.currentTimeMillis();
+        if (claimedAt == 0) {
+            claimedAt = now;
+            broadcastClaim(now);
+            return false;
+        }
+        if (holding) return true;
+        if (now - claimedAt < settleMillis) return false;
+
+        for (Map.Entry<String, Claim> entry : claims.entrySet()) {
+            Claim other = entry.getValue();
+            if (other.expiresAt < now) continue;
+            // The oldest claim wins, the server id breaks ties
+            if (other.claimedAt < claimedAt || (other.claimedAt == claimedAt && entry.getKey().compareTo(serverId) < 0)) {
+                return false;
+            }
+        }
+        for (ServerStatus peer : peers.values()) {
+            if (peer.resetting() && now - peer.updatedAt() <= staleMillis) return false;
+        }
+        holding = true;
+        return true;
+    }
+
+    @Override
+    public void release() {
+        if (claimedAt == 0) return;
+        claimedAt = 0;
+        holding = false;
+        broadcast("RELEASE", out -> { });
+    }
+
+    @Override
+    public Collection<ServerStatus> getPeers() {
+        long now = System.currentTimeMillis();
+        List<ServerStatus> fresh = new ArrayList<>();
+        for (ServerStatus peer : peers.values()) {
+            if (now - peer.updatedAt() <= staleMillis) fresh.add(peer);
+        }
+        return fresh;
+    }
+
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        if (!CHANNEL.equals(channel)) return;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+            if (!SUBCHANNEL.equals(in.readUTF())) return;
+            byte[] payload = new byte[in.readShort()];
+            in.readFully(payload);
+
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+            String sender = data.readUTF();
+            if (sender.equals(serverId)) return;
+            long now = System.currentTimeMillis();
+            switch (data.readUTF()) {
+                case "STATUS" -> peers.put(sender, new ServerStatus(sender, data.readBoolean(), data.readInt(), now));
+                case "CLAIM" -> claims.put(sender, new Claim(data.readLong(), now + data.readLong()));
+                case "RELEASE" -> claims.remove(sender);
+                default -> {
+                    // Sent by a newer version
+                }
+            }
+        } catch (IOException ignored) {
+            // Not a message of ours or a truncated one
+        }
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        // The proxy only forwards messages once the player's connection has settled
+        if (!unsent.isEmpty()) scheduler.runGlobalLater(this::sendUnsent, 20L);
+    }
+
+    private void sendUnsent() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            for (byte[] message : unsent.values()) {
+                player.sendPluginMessage(plugin, CHANNEL, message);
+            }
+            unsent.clear();
+            return;
+        }
+    }
+
+    private void broadcastClaim(long claim) {
+        broadcast("CLAIM", out -> {
+            out.writeLong(claim);
+            // Others drop the claim if it isn't repeated for a few heartbeats
+            out.writeLong(staleMillis);
+        });
+    }
+
+    private void broadcast(String type, Payload payload) {
+        byte[] message;
+        try {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(data);
+            out.writeUTF(serverId);
+            out.writeUTF(type);
+            payload.write(out);
+
+            ByteArrayOutputStream forward = new ByteArrayOutputStream();
+            DataOutputStream wrapper = new DataOutputStream(forward);
+            wrapper.writeUTF("Forward");
+            wrapper.writeUTF("ALL");
+            wrapper.writeUTF(SUBCHANNEL);
+            wrapper.writeShort(data.size());
+            wrapper.write(data.toByteArray());
+            message = forward.toByteArray();
+        } catch (IOException e) {
+            return;
+        }
+
+        scheduler.runGlobal(() -> {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                player.sendPluginMessage(plugin, CHANNEL, message);
+                return;
+            }
+            // A release makes an unsent claim moot and the other way round
+            if (type.equals("RELEASE")) unsent.remove("CLAIM");
+            if (type.equals("CLAIM")) unsent.remove("RELEASE");
+            unsent.remove(type);
+            unsent.put(type, message);
+        });
+    }
+
+    private interface Payload {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private record Claim(long claimedAt, long expiresAt) {
+    }
+}
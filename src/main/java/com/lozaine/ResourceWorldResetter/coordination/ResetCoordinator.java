@@ -0,0 +1,204 @@
+package com.lozaine.ResourceWorldResetter.coordination;
+
+import com.lozaine.ResourceWorldResetter.scheduler.ScheduledTask;
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Lets the servers behind a proxy take turns resetting. A reset waits for the network-wide reset lease
+ * before it starts and keeps it, renewed with every heartbeat, until the last reset on this server is over.
+ * A reset that can't get the lease within the configured wait goes ahead anyway (a wait of 0 waits for good),
+ * so a server that stopped without releasing it holds no one up for longer than that. Players moved out of
+ * a resetting world can be sent to the least busy server that isn't resetting instead of a local safe point.
+ * All methods must be called on the main thread; the backend is only used from async tasks.
+ */
+public class ResetCoordinator {
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final CoordinationBackend backend;
+    private final String serverId;
+    private final long heartbeatTicks;
+    private final long leaseMillis;
+    private final long maxWaitMillis;
+
+    private final Map<String, Waiter> waiting = new LinkedHashMap<>();
+    private final Set<String> holds = new HashSet<>();
+    private volatile Collection<CoordinationBackend.ServerStatus> peers = List.of();
+    private ScheduledTask task;
+    private boolean holding;
+    private boolean beating;
+
+    public ResetCoordinator(Plugin plugin, TaskScheduler scheduler, CoordinationBackend backend, String serverId,
+                            int heartbeatSeconds, int leaseSeconds, int maxWaitMinutes) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.backend = backend;
+        this.serverId = serverId;
+        this.heartbeatTicks = Math.max(1, heartbeatSeconds) * 20L;
+        // The lease has to outlive a few missed heartbeats
+        this.leaseMillis = Math.max(leaseSeconds, heartbeatSeconds * 3L) * 1000L;
+        this.maxWaitMillis = Math.max(0, maxWaitMinutes) * 60_000L;
+    }
+
+    public void start() {
+        backend.start();
+        // Needed for Connect messages whichever backend is used
+        Bukkit.getMessenger().registerOutgoingPluginChannel(plugin, PluginMessagingBackend.CHANNEL);
+        task = scheduler.runGlobalTimer(this::beat, 1L, heartbeatTicks);
+        LogUtil.log(plugin.getLogger(), "Coordinating resets with the other servers as '" + serverId + "'", Level.INFO);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        synchronized (backend) {
+            backend.stop();
+        }
+        Bukkit.getMessenger().unregisterOutgoingPluginChannel(plugin);
+    }
+
+    /**
+     * Runs the start of a reset once this server holds the reset lease, right away if it already does.
+     */
+    public void acquire(String worldName, Runnable start) {
+        if (holding) {
+            holds.add(worldName);
+            start.run();
+            return;
+        }
+        LogUtil.log(plugin.getLogger(), "Reset of " + worldName + " is waiting for the network reset lease", Level.INFO);
+        waiting.put(worldName, new Waiter(start, System.currentTimeMillis()));
+        beat();
+    }
+
+    /**
+     * Called when a reset is over or was cancelled while waiting. The lease is given up once no
+     * reset on this server needs it.
+     */
+    public void release(String worldName) {
+        waiting.remove(worldName);
+        holds.remove(worldName);
+        if (holding && holds.isEmpty() && waiting.isEmpty()) {
+            holding = false;
+            releaseLease();
+        }
+    }
+
+    public boolean isWaiting(String worldName) {
+        return waiting.containsKey(worldName);
+    }
+
+    public Collection<CoordinationBackend.ServerStatus> getPeers() {
+        return peers;
+    }
+
+    /**
+     * Sends a player to the server with the fewest players among those not resetting.
+     *
+     * @return false if no such server is known, in which case the player should be moved locally
+     */
+    public boolean transfer(Player player) {
+        CoordinationBackend.ServerStatus target = null;
+        for (CoordinationBackend.ServerStatus peer : peers) {
+            if (peer.resetting()) continue;
+            if (target == null || peer.players() < target.players()) target = peer;
+        }
+        if (target == null) return false;
+
+        try {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(data);
+            out.writeUTF("Connect");
+            out.writeUTF(target.serverId());
+            player.sendPluginMessage(plugin, PluginMessagingBackend.CHANNEL, data.toByteArray());
+        } catch (IOException e) {
+            return false;
+        }
+        player.sendMessage(ChatColor.GREEN + "The resource world is being reset - sending you to " + target.serverId() + ".");
+        return true;
+    }
+
+    private void beat() {
+        if (beating) return;
+        beating = true;
+
+        boolean wanted = !waiting.isEmpty() || !holds.isEmpty();
+        CoordinationBackend.ServerStatus status = new CoordinationBackend.ServerStatus(serverId, !holds.isEmpty(),
+                Bukkit.getOnlinePlayers().size(), System.currentTimeMillis());
+        scheduler.runAsync(() -> {
+            boolean held = false;
+            Collection<CoordinationBackend.ServerStatus> found;
+            synchronized (backend) {
+                backend.heartbeat(status);
+                if (wanted) held = backend.tryAcquire(leaseMillis);
+                found = backend.getPeers();
+            }
+            boolean acquired = held;
+            scheduler.runGlobal(() -> {
+                beating = false;
+                peers = found;
+                onLease(acquired);
+            });
+        });
+    }
+
+    private void onLease(boolean held) {
+        if (held && !holding) {
+            if (waiting.isEmpty() && holds.isEmpty()) {
+                // Every reset that wanted it was cancelled or finished in the meantime
+                releaseLease();
+                return;
+            }
+            holding = true;
+            LogUtil.log(plugin.getLogger(), "Took the network reset lease", Level.INFO);
+        } else if (!held && holding) {
+            // Someone broke a lease we stopped renewing in time; the running resets carry on
+            holding = false;
+            LogUtil.log(plugin.getLogger(), "Lost the network reset lease while resetting", Level.WARNING);
+        }
+
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Waiter>> iterator = waiting.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Waiter> entry = iterator.next();
+            Waiter waiter = entry.getValue();
+            if (!held) {
+                if (maxWaitMillis == 0 || now - waiter.since < maxWaitMillis) continue;
+                LogUtil.log(plugin.getLogger(), "Reset of " + entry.getKey() + " waited " + (now - waiter.since) / 60_000
+                        + " minutes for the network reset lease, starting it without", Level.WARNING);
+            }
+            iterator.remove();
+            holds.add(entry.getKey());
+            waiter.start.run();
+        }
+    }
+
+    private void releaseLease() {
+        scheduler.runAsync(() -> {
+            synchronized (backend) {
+                backend.release();
+            }
+        });
+    }
+
+    private record Waiter(Runnable start, long since) {
+    }
+}
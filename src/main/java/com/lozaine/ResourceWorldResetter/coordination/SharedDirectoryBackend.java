@@ -0,0 +1,224 @@
+package com.lozaine.ResourceWorldResetter.coordination;
+
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coordinates through a directory every server can reach, such as an NFS mount, or a local directory
+ * when the servers share a host. The lease is a file created with an exclusive hard link, so only one
+ * server can create it; it names its owner and when it expires, and a lease that wasn't renewed in time
+ * is taken over. Each server writes its status to servers/&lt;id&gt;.status. Expiry compares wall clocks,
+ * so the servers' clocks should be kept in sync.
+ */
+public class SharedDirectoryBackend implements CoordinationBackend {
+    private final Logger logger;
+    private final String serverId;
+    private final Path lease;
+    private final Path serversDir;
+    private final long staleMillis;
+    private volatile List<ServerStatus> peers = List.of();
+
+    /**
+     * @param staleMillis how long a server may go without a heartbeat before it is left out of the peers
+     */
+    public SharedDirectoryBackend(Logger logger, String serverId, Path directory, long staleMillis) {
+        this.logger = logger;
+        this.serverId = serverId;
+        this.lease = directory.resolve("reset.lease");
+        this.serversDir = directory.resolve("servers");
+        this.staleMillis = staleMillis;
+    }
+
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(serversDir);
+        } catch (IOException e) {
+            LogUtil.log(logger, "Cannot create coordination directory " + serversDir + ": " + e.getMessage(), Level.WARNING);
+        }
+    }
+
+    @Override
+    public void stop() {
+        release();
+        try {
+            Files.deleteIfExists(serversDir.resolve(serverId + ".status"));
+        } catch (IOException ignored) {
+            // Others drop it once it goes stale
+        }
+    }
+
+    @Override
+    public void heartbeat(ServerStatus status) {
+        Properties own = new Properties();
+        own.setProperty("resetting", Boolean.toString(status.resetting()));
+        own.setProperty("players", Integer.toString(status.players()));
+        own.setProperty("updatedAt", Long.toString(status.updatedAt()));
+        try {
+            writeAtomically(serversDir.resolve(serverId + ".status"), own);
+        } catch (IOException e) {
+            LogUtil.log(logger, "Failed to write coordination status: " + e.getMessage(), Level.WARNING);
+        }
+
+        List<ServerStatus> found = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(serversDir, "*.status")) {
+            for (Path file : files) {
+                String id = file.getFileName().toString();
+                id = id.substring(0, id.length() - ".status".length());
+                if (id.equals(serverId)) continue;
+
+                Properties values = read(file);
+                if (values == null) continue;
+                long updatedAt = parseLong(values.getProperty("updatedAt"));
+                if (now - updatedAt > staleMillis) continue;
+                found.add(new ServerStatus(id, Boolean.parseBoolean(values.getProperty("resetting")),
+                        (int) parseLong(values.getProperty("players")), updatedAt));
+            }
+        } catch (IOException e) {
+            LogUtil.log(logger, "Failed to read coordination statuses: " + e.getMessage(), Level.WARNING);
+        }
+        peers = List.copyOf(found);
+    }
+
+    @Override
+    public boolean tryAcquire(long leaseMillis) {
+        long now = System.currentTimeMillis();
+        Properties current = read(lease);
+        try {
+            if (current != null) {
+                boolean own = serverId.equals(current.getProperty("owner"));
+                if (parseLong(current.getProperty("expiresAt")) > now) {
+                    if (!own) return false;
+                    // Others only break a lease once it expired, so renewing a valid one can't replace theirs
+                    writeAtomically(lease, leaseValues(now + leaseMillis));
+                    Properties renewed = read(lease);
+                    return renewed != null && serverId.equals(renewed.getProperty("owner"));
+                }
+                // An expired lease may have been taken over since it was read, so even our own is taken anew
+                if (!breakLease(current)) return false;
+                if (!own) LogUtil.log(logger, "Took over the reset lease of " + current.getProperty("owner") + ", which expired", Level.WARNING);
+            }
+            return createLease(now + leaseMillis);
+        } catch (IOException e) {
+            LogUtil.log(logger, "Failed to take the reset lease: " + e.getMessage(), Level.WARNING);
+            return false;
+        }
+    }
+
+    @Override
+    public void release() {
+        Properties current = read(lease);
+        if (current == null || !serverId.equals(current.getProperty("owner"))) return;
+        try {
+            Files.deleteIfExists(lease);
+        } catch (IOException e) {
+            LogUtil.log(logger, "Failed to release the reset lease: " + e.getMessage(), Level.WARNING);
+        }
+    }
+
+    @Override
+    public Collection<ServerStatus> getPeers() {
+        return peers;
+    }
+
+    private boolean createLease(long expiresAt) throws IOException {
+        Path temp = lease.resolveSibling("reset.lease." + serverId + ".tmp");
+        write(temp, leaseValues(expiresAt));
+        try {
+            // Creating a hard link fails if the name exists, also on NFS, so only one server gets the lease
+            Files.createLink(lease, temp);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (UnsupportedOperationException e) {
+            try {
+                Files.move(temp, lease);
+                return true;
+            } catch (FileAlreadyExistsException taken) {
+                return false;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Moves an expired lease out of the way. If it turns out to have been renewed or replaced in the
+     * meantime, it is put back and the lease is left alone.
+     */
+    private boolean breakLease(Properties expired) throws IOException {
+        Path stale = lease.resolveSibling("reset.lease.stale." + serverId);
+        try {
+            Files.move(lease, stale, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (NoSuchFileException e) {
+            // Someone else broke or released it first
+            return true;
+        }
+
+        Properties moved = read(stale);
+        if (moved != null && !moved.equals(expired)) {
+            try {
+                Files.move(stale, lease);
+            } catch (FileAlreadyExistsException ignored) {
+                Files.deleteIfExists(stale);
+            }
+            return false;
+        }
+        Files.deleteIfExists(stale);
+        return true;
+    }
+
+    private Properties leaseValues(long expiresAt) {
+        Properties values = new Properties();
+        values.setProperty("owner", serverId);
+        values.setProperty("expiresAt", Long.toString(expiresAt));
+        return values;
+    }
+
+    private void writeAtomically(Path target, Properties values) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + "." + serverId + ".tmp");
+        write(temp, values);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void write(Path file, Properties values) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            values.store(writer, null);
+        }
+    }
+
+    private static Properties read(Path file) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Properties values = new Properties();
+            values.load(reader);
+            return values;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package com.lozaine.ResourceWorldResetter.gui;
 
 import com.lozaine.ResourceWorldResetter.ResourceWorldResetter;
+import com.lozaine.ResourceWorldResetter.reset.ChunkPregenerator;
+import com.lozaine.ResourceWorldResetter.reset.CountdownEngine;
+import com.lozaine.ResourceWorldResetter.reset.ManagedWorld;
+import com.lozaine.ResourceWorldResetter.reset.ResetQueue;
 import com.onarandombox.MultiverseCore.MultiverseCore;
-import com.onarandombox.MultiverseCore.api.MultiverseWorld;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
-import org.bukkit.inventory.Inventory;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
@@ -17,7 +21,7 @@ import java.util.*;
 
 public class AdminGUI implements Listener {
     private final ResourceWorldResetter plugin;
-    private final Map<UUID, GuiType> activeGuis = new HashMap<>();
+    private final Map<UUID, Menu> activeMenus = new HashMap<>();
     private final MultiverseCore mvCore;
 
     public enum GuiType {
@@ -27,110 +31,310 @@ public class AdminGUI implements Listener {
         WARNING_TIME_MENU,
         RESTART_TIME_MENU,
         MONTHLY_DAY_MENU,
-        WORLD_SELECTION_MENU
+        WORLD_SELECTION_MENU,
+        MANAGED_WORLDS_MENU
     }
 
+    // Menus are built once; dynamic slots are rebuilt when settingsVersion moves past what they show
+    private final Menu mainMenu;
+    private final Menu resetTypeMenu;
+    private final Menu resetDayMenu;
+    private final Menu warningTimeMenu;
+    private final Menu restartTimeMenu;
+    private final Menu monthlyDayMenu;
+    private final Menu managedWorldsMenu;
+    private final ItemStack backItem;
+    private final ItemStack previousPageItem;
+    private final ItemStack nextPageItem;
+    private final WorldIndex worldIndex;
+    private final Map<UUID, WorldBrowser> worldBrowsers = new HashMap<>();
+    private static final int WORLDS_PER_PAGE = 45;
+    private int settingsVersion;
+    private int mainMenuVersion = -1;
+
     public AdminGUI(ResourceWorldResetter plugin) {
         this.plugin = plugin;
         this.mvCore = (MultiverseCore) Bukkit.getPluginManager().getPlugin("Multiverse-Core");
         Bukkit.getPluginManager().registerEvents(this, plugin);
+
+        backItem = createGuiItem(Material.BARRIER, "Back", "Return to main menu");
+        mainMenu = buildMainMenu();
+        resetTypeMenu = buildResetTypeMenu();
+        resetDayMenu = buildResetDayMenu();
+        warningTimeMenu = buildWarningTimeMenu();
+        restartTimeMenu = buildRestartTimeMenu();
+        monthlyDayMenu = buildMonthlyDayMenu();
+        previousPageItem = createGuiItem(Material.ARROW, "Previous Page");
+        nextPageItem = createGuiItem(Material.ARROW, "Next Page");
+        worldIndex = new WorldIndex(plugin, plugin.getTaskScheduler(), mvCore);
+        managedWorldsMenu = new Menu(GuiType.MANAGED_WORLDS_MENU, 54, ChatColor.DARK_AQUA + "Managed Worlds");
+        managedWorldsMenu.set(49, backItem, (player, rightClick) -> openMainMenu(player));
+    }
+
+    /**
+     * Marks the items that show settings as outdated. Called whenever the config changes.
+     */
+    public void invalidateSettings() {
+        settingsVersion++;
     }
 
     public GuiType getActiveGuiType(UUID playerId) {
-        return activeGuis.get(playerId);
+        Menu menu = activeMenus.get(playerId);
+        return menu != null ? menu.getType() : null;
     }
 
-    public void openMainMenu(Player player) {
-        Inventory gui = Bukkit.createInventory(player, 27, ChatColor.DARK_AQUA + "" + ChatColor.BOLD + "Resource World Admin");
+    public Menu getActiveMenu(UUID playerId) {
+        return activeMenus.get(playerId);
+    }
+
+    private void open(Player player, Menu menu) {
+        player.openInventory(menu.getInventory());
+        activeMenus.put(player.getUniqueId(), menu);
+    }
 
-        // Current settings display with colors
-        gui.setItem(4, createInfoItem(Material.BOOK, "Current Settings",
-                "World: " + ChatColor.AQUA + plugin.getWorldName(),
-                "Reset Type: " + ChatColor.YELLOW + capitalizeFirstLetter(plugin.getResetType()),
-                "Restart Time: " + ChatColor.GOLD + plugin.getRestartTime() + ":00",
-                "Warning Time: " + ChatColor.RED + plugin.getResetWarningTime() + " minutes"));
+    private Menu buildMainMenu() {
+        Menu menu = new Menu(GuiType.MAIN_MENU, 27, ChatColor.DARK_AQUA + "" + ChatColor.BOLD + "Resource World Admin");
 
         // Main options with improved icons and descriptions
-        gui.setItem(10, createGuiItem(Material.GRASS_BLOCK, "Change World", "Select which world to reset"));
-        gui.setItem(12, createGuiItem(Material.CLOCK, "Reset Type", "Daily, weekly, or monthly"));
-        gui.setItem(14, createGuiItem(Material.SUNFLOWER, "Restart Time", "Hour of daily reset"));
-        gui.setItem(16, createGuiItem(Material.BELL, "Warning Time", "Minutes before reset"));
-        
-        gui.setItem(20, createGuiItem(Material.TNT, "Force Reset", "Reset world immediately"));
-        gui.setItem(22, createGuiItem(Material.REDSTONE, "Reload Config", "Reload all settings"));
+        menu.set(10, createGuiItem(Material.GRASS_BLOCK, "Change World", "Select which world to reset"),
+                (player, rightClick) -> openWorldSelectionMenu(player));
+        menu.set(12, createGuiItem(Material.CLOCK, "Reset Type", "Daily, weekly, or monthly"),
+                (player, rightClick) -> openResetTypeMenu(player));
+        menu.set(14, createGuiItem(Material.SUNFLOWER, "Restart Time", "Hour of daily reset"),
+                (player, rightClick) -> openRestartTimeMenu(player));
+        menu.set(16, createGuiItem(Material.BELL, "Warning Time", "Minutes before reset"),
+                (player, rightClick) -> openWarningTimeMenu(player));
+
+        menu.set(18, createGuiItem(Material.COMPASS, "Managed Worlds", "Reset state of every resource world"),
+                (player, rightClick) -> openManagedWorldsMenu(player));
+        menu.set(20, createGuiItem(Material.TNT, "Force Reset", "Reset world immediately"), (player, rightClick) -> {
+            player.closeInventory();
+            plugin.resetResourceWorld();
+            player.sendMessage(ChatColor.GREEN + "World reset initiated!");
+        });
+        menu.set(22, createGuiItem(Material.REDSTONE, "Reload Config", "Reload all settings"), (player, rightClick) -> {
+            player.closeInventory();
+            plugin.loadConfig();
+            player.sendMessage(ChatColor.GREEN + "Configuration reloaded!");
+        });
+        return menu;
+    }
+
+    public void openMainMenu(Player player) {
+        if (mainMenuVersion != settingsVersion) {
+            mainMenuVersion = settingsVersion;
+            // Current settings display with colors
+            mainMenu.set(4, createInfoItem(Material.BOOK, "Current Settings",
+                    "World: " + ChatColor.AQUA + plugin.getWorldName(),
+                    "Reset Type: " + ChatColor.YELLOW + capitalizeFirstLetter(plugin.getResetType()),
+                    "Restart Time: " + ChatColor.GOLD + plugin.getRestartTime() + ":00",
+                    "Warning Time: " + ChatColor.RED + plugin.getResetWarningTime() + " minutes"), null);
+        }
+
+        // Progress changes all the time, so this item is rebuilt on every open while a job runs
+        ChunkPregenerator pregenerator = plugin.getChunkPregenerator();
+        if (pregenerator != null) {
+            if (pregenerator.isRunning()) {
+                mainMenu.set(24, createInfoItem(Material.MAP, "Pre-generation",
+                        "World: " + ChatColor.AQUA + pregenerator.getWorldName(),
+                        "Progress: " + ChatColor.YELLOW + String.format("%.1f", pregenerator.getProgressPercent()) + "%",
+                        "Rate: " + ChatColor.GOLD + String.format("%.1f", pregenerator.getChunksPerSecond()) + " chunks/sec",
+                        "ETA: " + ChatColor.GOLD + pregenerator.getEtaDisplay(),
+                        pregenerator.isPaused() ? "Click to resume" : "Click to pause"), (clicker, rightClick) -> {
+                    if (pregenerator.isRunning()) {
+                        pregenerator.setPaused(!pregenerator.isPaused());
+                        clicker.sendMessage(ChatColor.GREEN + "Chunk pre-generation " + (pregenerator.isPaused() ? "paused" : "resumed") + "!");
+                    }
+                    openMainMenu(clicker);
+                });
+            } else {
+                mainMenu.set(24, createInfoItem(Material.MAP, "Pre-generation", "Not running"), null);
+            }
+        }
 
-        player.openInventory(gui);
-        activeGuis.put(player.getUniqueId(), GuiType.MAIN_MENU);
+        open(player, mainMenu);
     }
 
-    // World selection menu
+    // World selection menu, one page at a time from the world index
     public void openWorldSelectionMenu(Player player) {
-        Inventory gui = Bukkit.createInventory(player, 54, ChatColor.DARK_AQUA + "Select Resource World");
+        WorldBrowser browser = worldBrowsers.computeIfAbsent(player.getUniqueId(), id -> new WorldBrowser());
+        renderWorldPage(browser);
+        open(player, browser.menu);
+    }
 
-        int slot = 0;
+    /**
+     * Opens the world selection menu showing only the worlds whose name starts with the prefix.
+     */
+    public void searchWorlds(Player player, String prefix) {
+        WorldBrowser browser = worldBrowsers.computeIfAbsent(player.getUniqueId(), id -> new WorldBrowser());
+        browser.prefix = prefix;
+        browser.page = 0;
+        browser.resultsVersion = -1;
+        openWorldSelectionMenu(player);
+    }
 
-        // Get all worlds from Multiverse
-        if (mvCore != null) {
-            Collection<MultiverseWorld> mvWorlds = mvCore.getMVWorldManager().getMVWorlds();
-            for (MultiverseWorld mvWorld : mvWorlds) {
-                World world = mvWorld.getCBWorld();
-                if (world != null) {
-                    Material icon = Material.GRASS_BLOCK;
-                    String description = "Normal world";
-
-                    // Choose appropriate icon based on world type
-                    if (world.getEnvironment() == World.Environment.NETHER) {
-                        icon = Material.NETHERRACK;
-                        description = "Nether world";
-                    } else if (world.getEnvironment() == World.Environment.THE_END) {
-                        icon = Material.END_STONE;
-                        description = "End world";
-                    }
+    private void renderWorldPage(WorldBrowser browser) {
+        if (browser.resultsVersion != worldIndex.getVersion()) {
+            browser.resultsVersion = worldIndex.getVersion();
+            browser.results = worldIndex.query(browser.environment, browser.prefix);
+        }
+
+        int pages = Math.max(1, (browser.results.size() + WORLDS_PER_PAGE - 1) / WORLDS_PER_PAGE);
+        browser.page = Math.min(browser.page, pages - 1);
+
+        Menu menu = browser.menu;
+        menu.clear(0, WORLDS_PER_PAGE);
+        int first = browser.page * WORLDS_PER_PAGE;
+        int last = Math.min(first + WORLDS_PER_PAGE, browser.results.size());
+        for (int i = first; i < last; i++) {
+            String worldName = browser.results.get(i);
+            World.Environment environment = worldIndex.getEnvironment(worldName);
+
+            Material icon = Material.GRASS_BLOCK;
+            String description = "Normal world";
+
+            // Choose appropriate icon based on world type
+            if (environment == World.Environment.NETHER) {
+                icon = Material.NETHERRACK;
+                description = "Nether world";
+            } else if (environment == World.Environment.THE_END) {
+                icon = Material.END_STONE;
+                description = "End world";
+            }
 
-                    // If this is the current resource world, highlight it
-                    String worldName = world.getName();
-                    String displayName = worldName;
-                    if (worldName.equals(plugin.getWorldName())) {
-                        displayName = ChatColor.GREEN + worldName + ChatColor.WHITE + " (Current)";
+            // If this is the current resource world, highlight it
+            String displayName = worldName;
+            if (worldName.equals(plugin.getWorldName())) {
+                displayName = ChatColor.GREEN + worldName + ChatColor.WHITE + " (Current)";
+            }
+
+            menu.set(i - first, createGuiItem(icon, displayName, description), (clicker, rightClick) -> {
+                plugin.setWorldName(worldName);
+                clicker.sendMessage(ChatColor.GREEN + "Resource world set to: " + worldName);
+                openMainMenu(clicker);
+            });
+        }
+
+        menu.set(45, browser.page > 0 ? previousPageItem : null, browser.page > 0 ? (clicker, rightClick) -> {
+            browser.page--;
+            renderWorldPage(browser);
+        } : null);
+        menu.set(53, browser.page < pages - 1 ? nextPageItem : null, browser.page < pages - 1 ? (clicker, rightClick) -> {
+            browser.page++;
+            renderWorldPage(browser);
+        } : null);
+
+        menu.set(46, createGuiItem(Material.HOPPER, "Environment: " + environmentName(browser.environment),
+                "Click to switch filter"), (clicker, rightClick) -> {
+            browser.environment = nextEnvironment(browser.environment);
+            browser.page = 0;
+            browser.resultsVersion = -1;
+            renderWorldPage(browser);
+        });
+        boolean searching = browser.prefix != null && !browser.prefix.isEmpty();
+        menu.set(47, createGuiItem(Material.NAME_TAG, searching ? "Search: " + browser.prefix + "*" : "Search",
+                "Use /rwrgui search <prefix>", searching ? "Right-click to clear" : "Matches the start of the name"),
+                (clicker, rightClick) -> {
+                    if (rightClick && searching) {
+                        searchWorlds(clicker, null);
+                    } else {
+                        clicker.closeInventory();
+                        clicker.sendMessage(ChatColor.YELLOW + "Type /rwrgui search <prefix> to search worlds by name.");
                     }
+                });
+        menu.set(51, createInfoItem(Material.PAPER, "Page " + (browser.page + 1) + " of " + pages,
+                browser.results.size() + " of " + worldIndex.size() + " worlds shown"), null);
+    }
 
-                    gui.setItem(slot++, createGuiItem(icon, displayName, description));
+    private static String environmentName(World.Environment environment) {
+        if (environment == null) return "All";
+        return switch (environment) {
+            case NETHER -> "Nether";
+            case THE_END -> "End";
+            default -> "Normal";
+        };
+    }
+
+    private static World.Environment nextEnvironment(World.Environment environment) {
+        if (environment == null) return World.Environment.NORMAL;
+        return switch (environment) {
+            case NORMAL -> World.Environment.NETHER;
+            case NETHER -> World.Environment.THE_END;
+            default -> null;
+        };
+    }
 
-                    // Ensure we don't exceed inventory size
-                    if (slot >= 45) break;
-                }
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        worldBrowsers.remove(event.getPlayer().getUniqueId());
+    }
+
+    // Page, filters and cached matches of one player's world selection menu
+    private class WorldBrowser {
+        private final Menu menu = new Menu(GuiType.WORLD_SELECTION_MENU, 54, ChatColor.DARK_AQUA + "Select Resource World");
+        private int page;
+        private World.Environment environment;
+        private String prefix;
+        private List<String> results = List.of();
+        private int resultsVersion = -1;
+
+        private WorldBrowser() {
+            menu.set(49, backItem, (player, rightClick) -> openMainMenu(player));
+        }
+    }
+
+    // Managed worlds and where each one is in the reset queue; all of it is live state, rebuilt on every open
+    public void openManagedWorldsMenu(Player player) {
+        ResetQueue queue = plugin.getResetQueue();
+        managedWorldsMenu.clear(0, 46);
+
+        int slot = 0;
+        for (ManagedWorld world : plugin.getManagedWorlds()) {
+            Material icon = Material.GRASS_BLOCK;
+            if (world.getEnvironment() == World.Environment.NETHER) {
+                icon = Material.NETHERRACK;
+            } else if (world.getEnvironment() == World.Environment.THE_END) {
+                icon = Material.END_STONE;
             }
-        } else {
-            // Fallback if Multiverse isn't available
-            for (World world : Bukkit.getWorlds()) {
-                Material icon = Material.GRASS_BLOCK;
-                String description = "Normal world";
-
-                if (world.getEnvironment() == World.Environment.NETHER) {
-                    icon = Material.NETHERRACK;
-                    description = "Nether world";
-                } else if (world.getEnvironment() == World.Environment.THE_END) {
-                    icon = Material.END_STONE;
-                    description = "End world";
-                }
-
-                String worldName = world.getName();
-                String displayName = worldName;
-                if (worldName.equals(plugin.getWorldName())) {
-                    displayName = ChatColor.GREEN + worldName + ChatColor.WHITE + " (Current)";
-                }
-
-                gui.setItem(slot++, createGuiItem(icon, displayName, description));
-
-                if (slot >= 45) break;
+
+            String state = capitalizeFirstLetter(world.getState().name());
+            if (world.getState() == ManagedWorld.State.QUEUED) {
+                state += " (position " + queue.getPosition(world) + ")";
             }
+
+            List<String> lore = new ArrayList<>(List.of(
+                    "State: " + ChatColor.YELLOW + state,
+                    "Reset Type: " + ChatColor.YELLOW + capitalizeFirstLetter(world.getResetType()),
+                    "Restart Time: " + ChatColor.GOLD + world.getRestartTime() + ":00",
+                    "Next Reset: " + ChatColor.AQUA + (world.getNextReset() != null ? world.getNextReset().toLocalDateTime().toString().replace('T', ' ') : "not scheduled")));
+            CountdownEngine.Countdown countdown = plugin.getCountdownEngine().getCountdown(world);
+            if (countdown != null) {
+                lore.add("Resets In: " + ChatColor.RED + CountdownEngine.formatDuration(countdown.getRemainingSeconds()));
+                lore.add("Left-click to postpone 10 minutes");
+                lore.add("Right-click to cancel");
+            } else if (world.getState() == ManagedWorld.State.QUEUED) {
+                lore.add("Right-click to cancel");
+            }
+            managedWorldsMenu.set(slot++, createInfoItem(icon, world.getName(), lore.toArray(new String[0])),
+                    (clicker, rightClick) -> {
+                        if (rightClick) {
+                            if (plugin.cancelReset(world)) {
+                                clicker.sendMessage(ChatColor.GREEN + "Reset of " + world.getName() + " cancelled!");
+                            }
+                        } else if (plugin.postponeReset(world, 10)) {
+                            clicker.sendMessage(ChatColor.GREEN + "Reset of " + world.getName() + " postponed by 10 minutes!");
+                        }
+                        openManagedWorldsMenu(clicker);
+                    });
+
+            if (slot >= 45) break;
         }
 
-        // Back button
-        gui.setItem(49, createGuiItem(Material.BARRIER, "Back", "Return to main menu"));
+        managedWorldsMenu.set(45, createInfoItem(Material.HOPPER, "Reset Queue",
+                "Running: " + ChatColor.YELLOW + queue.getActive().size(),
+                "Waiting: " + ChatColor.YELLOW + queue.getWaiting().size()), null);
 
-        player.openInventory(gui);
-        activeGuis.put(player.getUniqueId(), GuiType.WORLD_SELECTION_MENU);
+        open(player, managedWorldsMenu);
     }
 
     // Helper method to capitalize first letter
@@ -141,7 +345,7 @@ public class AdminGUI implements Listener {
         return text.substring(0, 1).toUpperCase() + text.substring(1).toLowerCase();
     }
 
-    private ItemStack createGuiItem(Material material, String name, String... lore) {
+    static ItemStack createGuiItem(Material material, String name, String... lore) {
         ItemStack item = new ItemStack(material);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
@@ -154,7 +358,7 @@ public class AdminGUI implements Listener {
         return item;
     }
 
-    private ItemStack createInfoItem(Material material, String name, String... lore) {
+    static ItemStack createInfoItem(Material material, String name, String... lore) {
         ItemStack item = new ItemStack(material);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
@@ -165,51 +369,83 @@ public class AdminGUI implements Listener {
         return item;
     }
 
-    public void openResetTypeMenu(Player player) {
-        Inventory gui = Bukkit.createInventory(player, 9, ChatColor.DARK_AQUA + "Select Reset Type");
-
-        gui.setItem(2, createGuiItem(Material.PAPER, "Daily Reset", "Reset every day"));
-        gui.setItem(4, createGuiItem(Material.BOOK, "Weekly Reset", "Reset on a specific day of the week"));
-        gui.setItem(6, createGuiItem(Material.CLOCK, "Monthly Reset", "Reset on a specific day of the month"));
-
-        gui.setItem(8, createGuiItem(Material.BARRIER, "Back", "Return to main menu"));
+    private Menu buildResetTypeMenu() {
+        Menu menu = new Menu(GuiType.RESET_TYPE_MENU, 9, ChatColor.DARK_AQUA + "Select Reset Type");
+
+        menu.set(2, createGuiItem(Material.PAPER, "Daily Reset", "Reset every day"), (player, rightClick) -> {
+            plugin.setResetType("daily");
+            player.sendMessage(ChatColor.GREEN + "Reset type set to daily!");
+            openMainMenu(player);
+        });
+        menu.set(4, createGuiItem(Material.BOOK, "Weekly Reset", "Reset on a specific day of the week"), (player, rightClick) -> {
+            plugin.setResetType("weekly");
+            player.sendMessage(ChatColor.GREEN + "Reset type set to weekly!");
+            openResetDayMenu(player);
+        });
+        menu.set(6, createGuiItem(Material.CLOCK, "Monthly Reset", "Reset on a specific day of the month"), (player, rightClick) -> {
+            plugin.setResetType("monthly");
+            player.sendMessage(ChatColor.GREEN + "Reset type set to monthly!");
+            openMonthlyDayMenu(player);
+        });
+
+        menu.set(8, backItem, (player, rightClick) -> openMainMenu(player));
+        return menu;
+    }
 
-        player.openInventory(gui);
-        activeGuis.put(player.getUniqueId(), GuiType.RESET_TYPE_MENU);
+    public void openResetTypeMenu(Player player) {
+        open(player, resetTypeMenu);
     }
 
-    public void openResetDayMenu(Player player) {
-        Inventory gui = Bukkit.createInventory(player, 9, ChatColor.DARK_AQUA + "Select Reset Day");
+    private Menu buildResetDayMenu() {
+        Menu menu = new Menu(GuiType.RESET_DAY_MENU, 9, ChatColor.DARK_AQUA + "Select Reset Day");
 
         String[] dayNames = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
         for (int i = 0; i < 7; i++) {
-            gui.setItem(i, createGuiItem(Material.PAPER, dayNames[i], "Reset every " + dayNames[i]));
+            String dayName = dayNames[i];
+            int day = i + 1;
+            menu.set(i, createGuiItem(Material.PAPER, dayName, "Reset every " + dayName), (player, rightClick) -> {
+                plugin.setResetDay(day);
+                player.sendMessage(ChatColor.GREEN + "Weekly reset day set to " + dayName + "!");
+                openMainMenu(player);
+            });
         }
-        gui.setItem(8, createGuiItem(Material.BARRIER, "Back", "Return to main menu"));
+        menu.set(8, backItem, (player, rightClick) -> openMainMenu(player));
+        return menu;
+    }
 
-        player.openInventory(gui);
-        activeGuis.put(player.getUniqueId(), GuiType.RESET_DAY_MENU);
+    public void openResetDayMenu(Player player) {
+        open(player, resetDayMenu);
     }
 
-    public void openWarningTimeMenu(Player player) {
-        Inventory gui = Bukkit.createInventory(player, 18, ChatColor.DARK_AQUA + "Select Warning Time");
+    private Menu buildWarningTimeMenu() {
+        Menu menu = new Menu(GuiType.WARNING_TIME_MENU, 18, ChatColor.DARK_AQUA + "Select Warning Time");
 
         // Common warning times
-        gui.setItem(0, createGuiItem(Material.CLOCK, "No Warning", "Reset without warning"));
-        gui.setItem(1, createGuiItem(Material.CLOCK, "1 Minute", "Warn 1 minute before reset"));
-        gui.setItem(2, createGuiItem(Material.CLOCK, "5 Minutes", "Warn 5 minutes before reset"));
-        gui.setItem(3, createGuiItem(Material.CLOCK, "10 Minutes", "Warn 10 minutes before reset"));
-        gui.setItem(4, createGuiItem(Material.CLOCK, "15 Minutes", "Warn 15 minutes before reset"));
-        gui.setItem(5, createGuiItem(Material.CLOCK, "30 Minutes", "Warn 30 minutes before reset"));
+        menu.set(0, createGuiItem(Material.CLOCK, "No Warning", "Reset without warning"), warningTimeAction(0));
+        menu.set(1, createGuiItem(Material.CLOCK, "1 Minute", "Warn 1 minute before reset"), warningTimeAction(1));
+        menu.set(2, createGuiItem(Material.CLOCK, "5 Minutes", "Warn 5 minutes before reset"), warningTimeAction(5));
+        menu.set(3, createGuiItem(Material.CLOCK, "10 Minutes", "Warn 10 minutes before reset"), warningTimeAction(10));
+        menu.set(4, createGuiItem(Material.CLOCK, "15 Minutes", "Warn 15 minutes before reset"), warningTimeAction(15));
+        menu.set(5, createGuiItem(Material.CLOCK, "30 Minutes", "Warn 30 minutes before reset"), warningTimeAction(30));
+
+        menu.set(17, backItem, (player, rightClick) -> openMainMenu(player));
+        return menu;
+    }
 
-        gui.setItem(17, createGuiItem(Material.BARRIER, "Back", "Return to main menu"));
+    private Menu.ClickAction warningTimeAction(int minutes) {
+        return (player, rightClick) -> {
+            plugin.setResetWarningTime(minutes);
+            player.sendMessage(ChatColor.GREEN + "Warning time set to " + minutes + " minutes!");
+            openMainMenu(player);
+        };
+    }
 
-        player.openInventory(gui);
-        activeGuis.put(player.getUniqueId(), GuiType.WARNING_TIME_MENU);
+    public void openWarningTimeMenu(Player player) {
+        open(player, warningTimeMenu);
     }
 
-    public void openRestartTimeMenu(Player player) {
-        Inventory gui = Bukkit.createInventory(player, 27, ChatColor.DARK_AQUA + "Select Restart Hour");
+    private Menu buildRestartTimeMenu() {
+        Menu menu = new Menu(GuiType.RESTART_TIME_MENU, 27, ChatColor.DARK_AQUA + "Select Restart Hour");
 
         // Create slots for each hour (0-23)
         for (int hour = 0; hour < 24; hour++) {
@@ -218,35 +454,49 @@ public class AdminGUI implements Listener {
             int displayHour = (hour == 0 || hour == 12) ? 12 : hour % 12;
             String description = displayHour + ":00 " + ampm;
 
-            gui.setItem(hour, createGuiItem(Material.CLOCK, hourDisplay, description));
+            int selectedHour = hour;
+            menu.set(hour, createGuiItem(Material.CLOCK, hourDisplay, description), (player, rightClick) -> {
+                plugin.setRestartTime(selectedHour);
+                player.sendMessage(ChatColor.GREEN + "Restart time set to " + selectedHour + ":00!");
+                openMainMenu(player);
+            });
         }
 
-        gui.setItem(26, createGuiItem(Material.BARRIER, "Back", "Return to main menu"));
+        menu.set(26, backItem, (player, rightClick) -> openMainMenu(player));
+        return menu;
+    }
 
-        player.openInventory(gui);
-        activeGuis.put(player.getUniqueId(), GuiType.RESTART_TIME_MENU);
+    public void openRestartTimeMenu(Player player) {
+        open(player, restartTimeMenu);
     }
 
-    // Open monthly day selection menu
-    public void openMonthlyDayMenu(Player player) {
-        Inventory gui = Bukkit.createInventory(player, 36, ChatColor.DARK_AQUA + "Select Monthly Reset Day");
+    private Menu buildMonthlyDayMenu() {
+        Menu menu = new Menu(GuiType.MONTHLY_DAY_MENU, 36, ChatColor.DARK_AQUA + "Select Monthly Reset Day");
 
         // Days 1-31
         for (int day = 1; day <= 31; day++) {
-            gui.setItem(day - 1, createGuiItem(Material.PAPER, "Day " + day, "Reset on day " + day + " of each month"));
+            int selectedDay = day;
+            menu.set(day - 1, createGuiItem(Material.PAPER, "Day " + day, "Reset on day " + day + " of each month"), (player, rightClick) -> {
+                plugin.setResetDay(selectedDay);
+                player.sendMessage(ChatColor.GREEN + "Monthly reset day set to day " + selectedDay + "!");
+                openMainMenu(player);
+            });
         }
 
-        gui.setItem(35, createGuiItem(Material.BARRIER, "Back", "Return to main menu"));
+        menu.set(35, backItem, (player, rightClick) -> openMainMenu(player));
+        return menu;
+    }
 
-        player.openInventory(gui);
-        activeGuis.put(player.getUniqueId(), GuiType.MONTHLY_DAY_MENU);
+    // Open monthly day selection menu
+    public void openMonthlyDayMenu(Player player) {
+        open(player, monthlyDayMenu);
     }
 
     public boolean hasActiveGui(UUID playerUuid) {
-        return activeGuis.containsKey(playerUuid);
+        return activeMenus.containsKey(playerUuid);
     }
 
     public void removeActiveGui(UUID playerUuid) {
-        activeGuis.remove(playerUuid);
+        activeMenus.remove(playerUuid);
     }
 }
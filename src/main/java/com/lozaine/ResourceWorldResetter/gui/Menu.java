@@ -0,0 +1,53 @@
+package com.lozaine.ResourceWorldResetter.gui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * An admin menu with its items and click actions indexed by slot. The inventory is created once and
+ * reused every time the menu is opened, so opening it allocates nothing and only the slots showing
+ * changing data ever need to be rewritten. Clicks are resolved with an array lookup on the slot.
+ */
+public class Menu {
+    @FunctionalInterface
+    public interface ClickAction {
+        void click(Player player, boolean rightClick);
+    }
+
+    private final AdminGUI.GuiType type;
+    private final Inventory inventory;
+    private final ClickAction[] actions;
+
+    public Menu(AdminGUI.GuiType type, int size, String title) {
+        this.type = type;
+        this.inventory = Bukkit.createInventory(null, size, title);
+        this.actions = new ClickAction[size];
+    }
+
+    public AdminGUI.GuiType getType() { return type; }
+    public Inventory getInventory() { return inventory; }
+
+    public void set(int slot, ItemStack item, ClickAction action) {
+        inventory.setItem(slot, item);
+        actions[slot] = action;
+    }
+
+    /**
+     * Empties the slots from start (inclusive) to end (exclusive).
+     */
+    public void clear(int start, int end) {
+        for (int slot = start; slot < end; slot++) {
+            inventory.setItem(slot, null);
+            actions[slot] = null;
+        }
+    }
+
+    /**
+     * Returns the action for a raw slot of the open view, or null for empty slots and the player's own inventory.
+     */
+    public ClickAction getAction(int rawSlot) {
+        return rawSlot >= 0 && rawSlot < actions.length ? actions[rawSlot] : null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.lozaine.ResourceWorldResetter.gui;
+
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import com.onarandombox.MultiverseCore.MultiverseCore;
+import com.onarandombox.MultiverseCore.api.MultiverseWorld;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sorted index of the loaded Multiverse worlds and their environments, kept up to date by world load
+ * and unload events so that browsing worlds never has to walk Multiverse or touch the worlds themselves.
+ * Must be used from the main thread.
+ */
+public class WorldIndex implements Listener {
+    // Case-insensitive first so the list reads naturally, then case-sensitive so names differing only in case both fit
+    private static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final MultiverseCore mvCore;
+    private final TreeMap<String, World.Environment> worlds = new TreeMap<>(ORDER);
+    private int version;
+
+    public WorldIndex(Plugin plugin, TaskScheduler scheduler, MultiverseCore mvCore) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.mvCore = mvCore;
+        rebuild();
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+    }
+
+    private void rebuild() {
+        worlds.clear();
+        if (mvCore != null) {
+            for (MultiverseWorld mvWorld : mvCore.getMVWorldManager().getMVWorlds()) {
+                World world = mvWorld.getCBWorld();
+                if (world != null) worlds.put(world.getName(), world.getEnvironment());
+            }
+        } else {
+            // Fallback if Multiverse isn't available
+            for (World world : Bukkit.getWorlds()) {
+                worlds.put(world.getName(), world.getEnvironment());
+            }
+        }
+        version++;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        String name = event.getWorld().getName();
+        World.Environment environment = event.getWorld().getEnvironment();
+        // Multiverse registers a world only after Bukkit has loaded it, so check on the next tick
+        scheduler.runGlobal(() -> {
+            if (Bukkit.getWorld(name) == null) return;
+            if (mvCore != null && !mvCore.getMVWorldManager().isMVWorld(name)) return;
+            worlds.put(name, environment);
+            version++;
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        if (worlds.remove(event.getWorld().getName()) != null) {
+            version++;
+        }
+    }
+
+    /**
+     * Changes every time a world is added or removed, so callers can tell when cached results are stale.
+     */
+    public int getVersion() { return version; }
+
+    public int size() { return worlds.size(); }
+
+    public World.Environment getEnvironment(String name) {
+        return worlds.get(name);
+    }
+
+    /**
+     * Returns the names of the indexed worlds, in order, that are in the given environment and
+     * start with the given prefix, ignoring case. A null environment or empty prefix matches all.
+     */
+    public List<String> query(World.Environment environment, String prefix) {
+        Map<String, World.Environment> candidates = worlds;
+        if (prefix != null && !prefix.isEmpty()) {
+            // The upper-case form sorts first among the names equal to the prefix when case is ignored
+            candidates = worlds.tailMap(prefix.toUpperCase(Locale.ROOT), true);
+        }
+
+        List<String> matches = new ArrayList<>();
+        for (Map.Entry<String, World.Environment> entry : candidates.entrySet()) {
+            String name = entry.getKey();
+            if (prefix != null && !name.regionMatches(true, 0, prefix, 0, prefix.length())) break;
+            if (environment == null || entry.getValue() == environment) matches.add(name);
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,78 @@
+package com.lozaine.ResourceWorldResetter.monitor;
+
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves {@link ResetMetrics} at /metrics for Prometheus to scrape. Requests are handled on a single
+ * daemon thread, never on the main thread.
+ */
+public class MetricsServer {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final Logger logger;
+    private final ResetMetrics metrics;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MetricsServer(Logger logger, ResetMetrics metrics) {
+        this.logger = logger;
+        this.metrics = metrics;
+    }
+
+    public boolean start(String bindAddress, int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        } catch (IOException e) {
+            LogUtil.log(logger, "Could not start metrics endpoint on " + bindAddress + ":" + port + ": " + e.getMessage(), Level.WARNING);
+            return false;
+        }
+
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ResourceWorldResetter-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+        LogUtil.log(logger, "Metrics endpoint listening on http://" + bindAddress + ":" + port + "/metrics", Level.INFO);
+        return true;
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = metrics.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.lozaine.ResourceWorldResetter.monitor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Collects reset statistics per world and renders them in the Prometheus text format.
+ * Resets are recorded on the main thread while the metrics server renders from its own thread,
+ * so every method synchronizes on this object.
+ */
+public class ResetMetrics {
+    private final TickMonitor tickMonitor;
+    private final TaskBudget taskBudget;
+    private final IntSupplier queuedResets;
+    private final Map<String, WorldStats> worlds = new TreeMap<>();
+    private long trashBytesDeleted;
+
+    public ResetMetrics(TickMonitor tickMonitor, TaskBudget taskBudget, IntSupplier queuedResets) {
+        this.tickMonitor = tickMonitor;
+        this.taskBudget = taskBudget;
+        this.queuedResets = queuedResets;
+    }
+
+    public synchronized void recordReset(String world, ResetTimings timings, boolean success) {
+        WorldStats stats = stats(world);
+        if (success) {
+            stats.successes++;
+        } else {
+            stats.failures++;
+        }
+        stats.last = timings;
+        for (ResetTimings.Phase phase : ResetTimings.Phase.values()) {
+            stats.phaseSecondsTotal[phase.ordinal()] += timings.getSeconds(phase);
+        }
+        stats.playersMoved += timings.getPlayersMoved();
+        stats.bytesDeleted += timings.getBytesDeleted();
+    }
+
+    /**
+     * Records pre-generation that finished after the reset itself was recorded.
+     */
+    public synchronized void recordWarmup(String world, long millis, long chunks) {
+        WorldStats stats = stats(world);
+        stats.phaseSecondsTotal[ResetTimings.Phase.WARMUP.ordinal()] += millis / 1000.0;
+        stats.chunksGenerated += chunks;
+    }
+
+    /**
+     * Records world folders deleted from the trash in the background, which are no longer tied to a reset.
+     */
+    public synchronized void recordTrashDeleted(long bytes) {
+        trashBytesDeleted += bytes;
+    }
+
+    private WorldStats stats(String world) {
+        return worlds.computeIfAbsent(world, name -> new WorldStats());
+    }
+
+    public synchronized String render() {
+        StringBuilder out = new StringBuilder(2048);
+
+        header(out, "rwr_resets_total", "counter", "Completed resets by result");
+        worlds.forEach((world, stats) -> {
+            sample(out, "rwr_resets_total", "world", world, "result", "success", stats.successes);
+            sample(out, "rwr_resets_total", "world", world, "result", "failure", stats.failures);
+        });
+
+        header(out, "rwr_reset_phase_seconds_total", "counter", "Time spent in each reset phase");
+        worlds.forEach((world, stats) -> {
+            for (ResetTimings.Phase phase : ResetTimings.Phase.values()) {
+                sample(out, "rwr_reset_phase_seconds_total", "world", world, "phase", phase.label(),
+                        stats.phaseSecondsTotal[phase.ordinal()]);
+            }
+        });
+
+        header(out, "rwr_reset_last_phase_seconds", "gauge", "Duration of each phase of the most recent reset");
+        worlds.forEach((world, stats) -> {
+            if (stats.last == null) return;
+            for (ResetTimings.Phase phase : ResetTimings.Phase.values()) {
+                sample(out, "rwr_reset_last_phase_seconds", "world", world, "phase", phase.label(),
+                        stats.last.getSeconds(phase));
+            }
+        });
+
+        header(out, "rwr_reset_bytes_deleted_total", "counter", "Bytes of world files deleted during resets");
+        worlds.forEach((world, stats) -> sample(out, "rwr_reset_bytes_deleted_total", "world", world, null, null, stats.bytesDeleted));
+
+        header(out, "rwr_trash_bytes_deleted_total", "counter", "Bytes of trashed world folders deleted in the background");
+        sample(out, "rwr_trash_bytes_deleted_total", null, null, null, null, trashBytesDeleted);
+
+        header(out, "rwr_reset_players_moved_total", "counter", "Players moved out of a world before its reset");
+        worlds.forEach((world, stats) -> sample(out, "rwr_reset_players_moved_total", "world", world, null, null, stats.playersMoved));
+
+        header(out, "rwr_pregen_chunks_generated_total", "counter", "Chunks generated by pre-generation after resets");
+        worlds.forEach((world, stats) -> sample(out, "rwr_pregen_chunks_generated_total", "world", world, null, null, stats.chunksGenerated));
+
+        header(out, "rwr_reset_queue_waiting", "gauge", "Resets waiting in the reset queue");
+        sample(out, "rwr_reset_queue_waiting", null, null, null, null, queuedResets.getAsInt());
+
+        TickMonitor.TickStats ticks = tickMonitor.getStats(60);
+        header(out, "rwr_tps", "gauge", "Average TPS over the last minute");
+        sample(out, "rwr_tps", null, null, null, null, ticks.tps());
+        header(out, "rwr_tick_millis", "summary", "Tick durations over the last minute");
+        sample(out, "rwr_tick_millis", "quantile", "0.5", null, null, ticks.p50Millis());
+        sample(out, "rwr_tick_millis", "quantile", "0.95", null, null, ticks.p95Millis());
+        sample(out, "rwr_tick_millis", "quantile", "0.99", null, null, ticks.p99Millis());
+        sample(out, "rwr_tick_millis", "quantile", "1", null, null, ticks.maxMillis());
+        sample(out, "rwr_tick_millis_sum", null, null, null, null, ticks.meanMillis() * ticks.samples());
+        sample(out, "rwr_tick_millis_count", null, null, null, null, ticks.samples());
+
+        List<TaskBudget.Snapshot> tasks = taskBudget.getUsage();
+        header(out, "rwr_main_thread_task_max_millis", "gauge", "Longest single run of each main thread task");
+        tasks.forEach(task -> sample(out, "rwr_main_thread_task_max_millis", "task", task.label(), null, null,
+                task.maxNanos() / 1_000_000.0));
+        header(out, "rwr_main_thread_task_allocated_bytes_total", "counter", "Memory allocated by each main thread task");
+        tasks.forEach(task -> sample(out, "rwr_main_thread_task_allocated_bytes_total", "task", task.label(), null, null,
+                task.totalBytes()));
+        header(out, "rwr_main_thread_task_over_budget_total", "counter", "Main thread task runs over the configured budget");
+        tasks.forEach(task -> sample(out, "rwr_main_thread_task_over_budget_total", "task", task.label(), null, null,
+                task.overBudget()));
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String label1, String value1,
+                               String label2, String value2, double value) {
+        out.append(name);
+        if (label1 != null) {
+            out.append('{').append(label1).append("=\"").append(escape(value1)).append('"');
+            if (label2 != null) {
+                out.append(',').append(label2).append("=\"").append(escape(value2)).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static class WorldStats {
+        private long successes;
+        private long failures;
+        private final double[] phaseSecondsTotal = new double[ResetTimings.Phase.values().length];
+        private ResetTimings last;
+        private long bytesDeleted;
+        private long playersMoved;
+        private long chunksGenerated;
+    }
+}
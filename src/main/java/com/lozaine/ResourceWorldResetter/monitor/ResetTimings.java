@@ -0,0 +1,73 @@
+package com.lozaine.ResourceWorldResetter.monitor;
+
+/**
+ * Durations of the phases of a single world reset, plus what the reset moved, deleted and generated.
+ * Phases that didn't happen in a reset stay at zero.
+ */
+public class ResetTimings {
+    public enum Phase {
+        WARNING,
+        EVACUATION,
+        UNLOAD,
+        DELETE,
+        CREATE,
+        WARMUP;
+
+        public String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final long[] startNanos = new long[Phase.values().length];
+    private final long[] durationNanos = new long[Phase.values().length];
+    private volatile int playersMoved;
+    private volatile long filesDeleted;
+    private volatile long bytesDeleted;
+    private volatile long chunksGenerated;
+
+    public void begin(Phase phase) {
+        startNanos[phase.ordinal()] = System.nanoTime();
+    }
+
+    /**
+     * Ends a phase started with {@link #begin}. Ending a phase that was never started does nothing.
+     */
+    public void end(Phase phase) {
+        long start = startNanos[phase.ordinal()];
+        if (start == 0) return;
+        durationNanos[phase.ordinal()] = System.nanoTime() - start;
+        startNanos[phase.ordinal()] = 0;
+    }
+
+    public void set(Phase phase, long millis) {
+        durationNanos[phase.ordinal()] = millis * 1_000_000;
+    }
+
+    public long getMillis(Phase phase) {
+        return durationNanos[phase.ordinal()] / 1_000_000;
+    }
+
+    public double getSeconds(Phase phase) {
+        return durationNanos[phase.ordinal()] / 1_000_000_000.0;
+    }
+
+    public int getPlayersMoved() { return playersMoved; }
+    public long getFilesDeleted() { return filesDeleted; }
+    public long getBytesDeleted() { return bytesDeleted; }
+    public long getChunksGenerated() { return chunksGenerated; }
+
+    public void setPlayersMoved(int playersMoved) { this.playersMoved = playersMoved; }
+    public void setFilesDeleted(long filesDeleted) { this.filesDeleted = filesDeleted; }
+    public void setBytesDeleted(long bytesDeleted) { this.bytesDeleted = bytesDeleted; }
+    public void setChunksGenerated(long chunksGenerated) { this.chunksGenerated = chunksGenerated; }
+
+    public String describe() {
+        StringBuilder builder = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            if (durationNanos[phase.ordinal()] == 0) continue;
+            if (builder.length() > 0) builder.append(", ");
+            builder.append(phase.label()).append(' ').append(getMillis(phase)).append("ms");
+        }
+        return builder.length() > 0 ? builder.toString() : "no phases recorded";
+    }
+}
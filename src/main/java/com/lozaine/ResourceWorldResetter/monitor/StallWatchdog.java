@@ -0,0 +1,292 @@
+package com.lozaine.ResourceWorldResetter.monitor;
+
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Samples the stack of a main thread step that runs past a threshold while a reset is in progress.
+ * Steps are the tasks measured by {@link TaskBudget}; the watchdog thread only runs between the first
+ * reset starting and the last one finishing. Samples are merged by stack and written to the log folder
+ * as a pruned call tree (stalls-*.txt) and in the collapsed format flame graph tools read (stalls-*.folded).
+ */
+public class StallWatchdog {
+    // Keeps a reset that stalls in many different places from growing the sample table without bound
+    private static final int MAX_STACKS = 5000;
+    private static final int MAX_DEPTH = 128;
+    private static final double PRUNE_FRACTION = 0.02;
+
+    private final Logger logger;
+    private final File logDir;
+    private final Map<Thread, Step> steps = new ConcurrentHashMap<>();
+    private final ThreadLocal<Step> current = new ThreadLocal<>();
+    private final Set<String> resets = new LinkedHashSet<>();
+    private volatile boolean enabled;
+    private volatile long thresholdNanos;
+    private volatile long intervalMillis;
+    // Set while the sampler runs, so steps outside a reset skip the bookkeeping
+    private volatile boolean active;
+
+    private Thread thread;
+
+    public StallWatchdog(Logger logger, File logDir) {
+        this.logger = logger;
+        this.logDir = logDir;
+    }
+
+    public void configure(boolean enabled, long thresholdMillis, long intervalMillis) {
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, thresholdMillis));
+        this.intervalMillis = Math.max(1, intervalMillis);
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    /**
+     * Whether steps are being watched, which is only the case while a reset is in progress.
+     */
+    public boolean isActive() { return active; }
+
+    /**
+     * Marks the start of a step on the calling thread. Steps nested in a running step extend it
+     * and take over its label until they exit.
+     */
+    void enter(String label) {
+        Step step = current.get();
+        if (step != null) {
+            step.push(label);
+            return;
+        }
+        step = new Step(Thread.currentThread(), System.nanoTime());
+        step.push(label);
+        current.set(step);
+        steps.put(step.thread, step);
+    }
+
+    void exit() {
+        Step step = current.get();
+        if (step == null || !step.pop()) return;
+
+        current.remove();
+        steps.remove(step.thread);
+        if (step.sampled > 0) {
+            LogUtil.log(logger, String.format("Main thread step '%s' took %.0fms, %d stack samples taken",
+                    step.outerLabel, (System.nanoTime() - step.start) / 1_000_000.0, step.sampled), Level.WARNING);
+        }
+    }
+
+    /**
+     * Starts sampling if this is the first reset in progress.
+     */
+    public synchronized void resetStarted(String worldName) {
+        resets.add(worldName);
+        if (!enabled || thread != null) return;
+
+        Session session = new Session(String.join(", ", resets));
+        thread = new Thread(() -> run(session), "ResourceWorldResetter-StallWatchdog");
+        thread.setDaemon(true);
+        active = true;
+        thread.start();
+    }
+
+    /**
+     * Stops sampling and writes the summary once no reset is in progress any more.
+     */
+    public synchronized void resetFinished(String worldName) {
+        resets.remove(worldName);
+        if (resets.isEmpty()) stop();
+    }
+
+    public synchronized void stop() {
+        if (thread == null) return;
+        active = false;
+        thread.interrupt();
+        thread = null;
+    }
+
+    private void run(Session session) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.sleep(intervalMillis);
+                sample(session);
+            }
+        } catch (InterruptedException ignored) {
+            // Stopped once the resets finished
+        }
+        if (session.count > 0) writeSummary(session);
+    }
+
+    private void sample(Session session) {
+        long now = System.nanoTime();
+        for (Step step : steps.values()) {
+            long elapsed = now - step.start;
+            if (elapsed < thresholdNanos) continue;
+
+            String label = step.label;
+            StackTraceElement[] stack = step.thread.getStackTrace();
+            // The step may have finished while the stack was taken
+            if (steps.get(step.thread) != step) continue;
+
+            if (step.sampled++ == 0) {
+                LogUtil.log(logger, String.format("Main thread step '%s' has been running for %.0fms%s, sampling its stack",
+                        step.outerLabel, elapsed / 1_000_000.0, label.equals(step.outerLabel) ? "" : ", now in '" + label + "'"),
+                        Level.WARNING);
+            }
+            session.record(label, stack);
+        }
+    }
+
+    private static String frame(StackTraceElement element) {
+        String className = element.getClassName();
+        className = className.substring(className.lastIndexOf('.') + 1);
+        // Lambda classes carry an address that differs between runs
+        int lambda = className.indexOf("$$Lambda");
+        if (lambda > 0) className = className.substring(0, lambda + "$$Lambda".length());
+        return className + "." + element.getMethodName();
+    }
+
+    private void writeSummary(Session session) {
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(session.startedAt));
+        File tree = new File(logDir, "stalls-" + stamp + ".txt");
+        File folded = new File(logDir, "stalls-" + stamp + ".folded");
+
+        Node root = new Node("all");
+        Map<String, Long> selfCounts = new HashMap<>();
+        for (Map.Entry<String, Long> entry : session.samples.entrySet()) {
+            String[] frames = entry.getKey().split(";");
+            root.add(frames, entry.getValue());
+            selfCounts.merge(frames[frames.length - 1], entry.getValue(), Long::sum);
+        }
+
+        try {
+            Files.createDirectories(logDir.toPath());
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(folded.toPath(), StandardCharsets.UTF_8))) {
+                session.samples.forEach((stack, count) -> out.println(stack + " " + count));
+            }
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(tree.toPath(), StandardCharsets.UTF_8))) {
+                out.printf("Main thread stalls during the reset of %s, started %s%n", session.worldNames, new Date(session.startedAt));
+                out.printf("%d samples, one every %dms while a step ran longer than %dms%n%n",
+                        session.count, intervalMillis, TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+                out.println("Where the time went (frames under " + (int) (PRUNE_FRACTION * 100) + "% left out):");
+                root.print(out, 0, session.count);
+                out.println();
+                out.println("Hottest frames:");
+                List<Map.Entry<String, Long>> hottest = new ArrayList<>(selfCounts.entrySet());
+                hottest.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+                for (Map.Entry<String, Long> entry : hottest.subList(0, Math.min(10, hottest.size()))) {
+                    out.printf("%6.1f%%  %s%n", 100.0 * entry.getValue() / session.count, entry.getKey());
+                }
+            }
+            LogUtil.log(logger, "Wrote main thread stall summary (" + session.count + " samples) to " + tree.getName()
+                    + " and " + folded.getName(), Level.WARNING);
+        } catch (IOException e) {
+            LogUtil.log(logger, "Failed to write stall summary: " + e.getMessage(), Level.WARNING);
+        }
+    }
+
+    /**
+     * Samples taken while resets were in progress, owned by one watchdog thread.
+     */
+    private static class Session {
+        private final String worldNames;
+        private final long startedAt = System.currentTimeMillis();
+        private final Map<String, Long> samples = new HashMap<>();
+        private long count;
+
+        Session(String worldNames) {
+            this.worldNames = worldNames;
+        }
+
+        void record(String label, StackTraceElement[] stack) {
+            StringBuilder folded = new StringBuilder(1024).append('[').append(label).append(']');
+            for (int i = Math.min(stack.length, MAX_DEPTH) - 1; i >= 0; i--) {
+                folded.append(';').append(frame(stack[i]));
+            }
+            String key = folded.toString();
+            if (samples.size() >= MAX_STACKS && !samples.containsKey(key)) {
+                key = "[" + label + "];[other stacks]";
+            }
+            samples.merge(key, 1L, Long::sum);
+            count++;
+        }
+    }
+
+    /**
+     * A main thread step in progress. The label stack is only touched by the step's own thread.
+     */
+    private static class Step {
+        private final Thread thread;
+        private final long start;
+        private final List<String> labels = new ArrayList<>();
+        private String outerLabel;
+        private volatile String label;
+        private volatile long sampled;
+
+        Step(Thread thread, long start) {
+            this.thread = thread;
+            this.start = start;
+        }
+
+        void push(String next) {
+            if (labels.isEmpty()) outerLabel = next;
+            labels.add(next);
+            label = next;
+        }
+
+        /**
+         * @return true if the outermost step has exited
+         */
+        boolean pop() {
+            labels.remove(labels.size() - 1);
+            if (labels.isEmpty()) return true;
+            label = labels.get(labels.size() - 1);
+            return false;
+        }
+    }
+
+    private static class Node {
+        private final String name;
+        private final Map<String, Node> children = new LinkedHashMap<>();
+        private long count;
+
+        Node(String name) {
+            this.name = name;
+        }
+
+        void add(String[] frames, long samples) {
+            count += samples;
+            Node node = this;
+            for (String frame : frames) {
+                node = node.children.computeIfAbsent(frame, Node::new);
+                node.count += samples;
+            }
+        }
+
+        void print(PrintWriter out, int depth, long total) {
+            List<Node> sorted = new ArrayList<>(children.values());
+            sorted.sort((a, b) -> Long.compare(b.count, a.count));
+            for (Node child : sorted) {
+                if (child.count < total * PRUNE_FRACTION) continue;
+                out.printf("%6.1f%% %s%s%n", 100.0 * child.count / total, "  ".repeat(depth), child.name);
+                child.print(out, depth + 1, total);
+            }
+        }
+    }
+}
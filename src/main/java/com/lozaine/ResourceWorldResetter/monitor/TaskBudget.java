@@ -0,0 +1,174 @@
+package com.lozaine.ResourceWorldResetter.monitor;
+
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures the wall time and the memory allocated by the plugin's tasks on the main thread (or region
+ * threads on Folia), per task label, and warns when a single task goes over the configured budget.
+ * Tasks nested in a measured task are measured under their own label as well as counting towards the outer one.
+ */
+public class TaskBudget {
+    private static final long WARN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final Logger logger;
+    private final Map<String, Usage> usage = new ConcurrentHashMap<>();
+    private final com.sun.management.ThreadMXBean allocations;
+    private volatile boolean enabled;
+    private volatile long maxNanos;
+    private volatile long maxBytes;
+    private volatile StallWatchdog watchdog;
+
+    public TaskBudget(Logger logger) {
+        this.logger = logger;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        // Allocation counting is a HotSpot extension; without it only wall time is measured
+        if (threads instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemorySupported()) {
+            this.allocations = hotspot;
+        } else {
+            this.allocations = null;
+        }
+    }
+
+    /**
+     * @param maxMillis      wall time a single task may take
+     * @param maxAllocatedKb memory a single task may allocate, 0 for no limit
+     */
+    public void configure(boolean enabled, double maxMillis, long maxAllocatedKb) {
+        // The setting is JVM-wide, so it is only switched on once measuring is
+        if (enabled && allocations != null && !allocations.isThreadAllocatedMemoryEnabled()) {
+            allocations.setThreadAllocatedMemoryEnabled(true);
+        }
+        this.enabled = enabled;
+        this.maxNanos = (long) (Math.max(0, maxMillis) * 1_000_000);
+        this.maxBytes = Math.max(0, maxAllocatedKb) * 1024;
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    /**
+     * Reports the start and end of every measured task to the watchdog while it is sampling a reset,
+     * even when measuring is disabled.
+     */
+    public void setWatchdog(StallWatchdog watchdog) {
+        this.watchdog = watchdog;
+    }
+
+    public void measure(String label, Runnable task) {
+        StallWatchdog watchdog = this.watchdog;
+        boolean watched = watchdog != null && watchdog.isActive();
+        boolean measured = enabled;
+        if (!measured && !watched) {
+            task.run();
+            return;
+        }
+
+        if (watched) watchdog.enter(label);
+        long startBytes = measured ? allocatedBytes() : 0;
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            if (watched) watchdog.exit();
+            if (measured) {
+                long nanos = System.nanoTime() - start;
+                long bytes = allocations != null ? allocatedBytes() - startBytes : 0;
+                usage.computeIfAbsent(label, Usage::new).record(nanos, bytes);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of every label measured so far, the slowest single task first.
+     */
+    public List<Snapshot> getUsage() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Usage entry : usage.values()) {
+            snapshots.add(entry.snapshot());
+        }
+        snapshots.sort(Comparator.comparingLong(Snapshot::maxNanos).reversed());
+        return snapshots;
+    }
+
+    public void clear() {
+        usage.clear();
+    }
+
+    private long allocatedBytes() {
+        return allocations != null ? allocations.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * Totals for one task label. Times are in nanoseconds.
+     */
+    public record Snapshot(String label, long count, long totalNanos, long maxNanos, long totalBytes, long maxBytes,
+                           long overBudget) {
+
+        public String describe() {
+            return String.format("%s: %d runs, mean %.2fms, max %.2fms, mean %d KB, max %d KB, %d over budget",
+                    label, count, count > 0 ? totalNanos / (double) count / 1_000_000 : 0, maxNanos / 1_000_000.0,
+                    count > 0 ? totalBytes / count / 1024 : 0, maxBytes / 1024, overBudget);
+        }
+    }
+
+    private class Usage {
+        private final String label;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private long totalBytes;
+        private long maxBytes;
+        private long overBudget;
+        private long lastWarned;
+        private long unreported;
+
+        Usage(String label) {
+            this.label = label;
+        }
+
+        void record(long nanos, long bytes) {
+            boolean over = (TaskBudget.this.maxNanos > 0 && nanos > TaskBudget.this.maxNanos)
+                    || (TaskBudget.this.maxBytes > 0 && bytes > TaskBudget.this.maxBytes);
+            long skipped = -1;
+            synchronized (this) {
+                count++;
+                totalNanos += nanos;
+                maxNanos = Math.max(maxNanos, nanos);
+                totalBytes += bytes;
+                maxBytes = Math.max(maxBytes, bytes);
+                if (!over) return;
+
+                overBudget++;
+                // One warning per label a minute, so a task that is always slow doesn't flood the log
+                long now = System.nanoTime();
+                if (lastWarned != 0 && now - lastWarned < WARN_INTERVAL_NANOS) {
+                    unreported++;
+                } else {
+                    lastWarned = now;
+                    skipped = unreported;
+                    unreported = 0;
+                }
+            }
+            if (skipped < 0) return;
+
+            LogUtil.log(logger, String.format("Main thread task '%s' went over budget: %.2fms, %d KB allocated "
+                            + "(budget %.2fms, %d KB)%s", label, nanos / 1_000_000.0, bytes / 1024,
+                    TaskBudget.this.maxNanos / 1_000_000.0, TaskBudget.this.maxBytes / 1024,
+                    skipped > 0 ? ", " + skipped + " more times since the last warning" : ""), Level.WARNING);
+        }
+
+        synchronized Snapshot snapshot() {
+            return new Snapshot(label, count, totalNanos, maxNanos, totalBytes, maxBytes, overBudget);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.lozaine.ResourceWorldResetter.monitor;
+
+import com.lozaine.ResourceWorldResetter.scheduler.ScheduledTask;
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Measures how long each server tick takes with a task that runs every tick, keeping the
+ * durations in a fixed-size ring buffer so averages and percentiles can be read over any recent window.
+ * These durations are the spacing between ticks, which stays at 50ms however busy a server that keeps up is,
+ * so load is judged by the main thread time per tick (MSPT) instead where the server reports it.
+ */
+public class TickMonitor {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    // A server that keeps up spaces ticks 50ms apart; well beyond that it is falling behind
+    private static final double LAGGING_MARGIN_MILLIS = 15;
+    private static final int LAGGING_WINDOW_SECONDS = 5;
+
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final long[] durations;
+    private ScheduledTask task;
+    private long lastTickNanos;
+    // Total number of ticks recorded; the newest sample is at (count - 1) % durations.length
+    private volatile long count;
+    // Paper's Server#getAverageTickTime, null where it is missing or unsupported
+    private volatile Method averageTickTime;
+
+    /**
+     * @param historySeconds how much history to keep, which is also the longest window that can be queried
+     */
+    public TickMonitor(Plugin plugin, TaskScheduler scheduler, int historySeconds) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.durations = new long[Math.max(20, historySeconds * 20)];
+        try {
+            this.averageTickTime = Server.class.getMethod("getAverageTickTime");
+        } catch (NoSuchMethodException e) {
+            this.averageTickTime = null;
+        }
+    }
+
+    public void start() {
+        lastTickNanos = System.nanoTime();
+        task = scheduler.runGlobalTimer(this::tick, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        durations[(int) (count % durations.length)] = now - lastTickNanos;
+        lastTickNanos = now;
+        count++;
+    }
+
+    /**
+     * Main thread time per tick averaged over the last 100 ticks, as reported by Paper, or -1 where
+     * the server doesn't report it (Spigot, Folia).
+     */
+    public double getBusyMillis() {
+        Method method = averageTickTime;
+        if (method == null) return -1;
+        try {
+            return ((Number) method.invoke(plugin.getServer())).doubleValue();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Folia has no single main thread and throws
+            averageTickTime = null;
+            return -1;
+        }
+    }
+
+    /**
+     * Whether the server is too busy for background work to keep going at full speed: the time per tick
+     * is over the target, or, where that isn't reported, the 95th percentile tick interval over the last
+     * few seconds is well over 50ms.
+     */
+    public boolean isOverloaded(double targetMillis) {
+        return isOverloaded(targetMillis, LAGGING_WINDOW_SECONDS);
+    }
+
+    /**
+     * Like {@link #isOverloaded(double)}, judging tick intervals over the given number of seconds.
+     */
+    public boolean isOverloaded(double targetMillis, int windowSeconds) {
+        double busy = getBusyMillis();
+        if (busy >= 0) return busy > targetMillis;
+        return getStats(windowSeconds).p95Millis() > Math.max(targetMillis, 50) + LAGGING_MARGIN_MILLIS;
+    }
+
+    /**
+     * Average TPS over the last given number of seconds, capped at 20 like the server's own figure.
+     */
+    public double getTps(int windowSeconds) {
+        return getStats(windowSeconds).tps();
+    }
+
+    /**
+     * Tick statistics over the last given number of seconds, or over the whole history if less has been recorded.
+     */
+    public TickStats getStats(int windowSeconds) {
+        long recorded = count;
+        int samples = (int) Math.min(Math.min(recorded, durations.length), Math.max(1, windowSeconds) * 20L);
+        if (samples == 0) {
+            return new TickStats(0, 20.0, 50, 50, 50, 50, 50);
+        }
+
+        long[] window = new long[samples];
+        long total = 0;
+        for (int i = 0; i < samples; i++) {
+            long value = durations[(int) ((recorded - 1 - i) % durations.length)];
+            window[i] = value;
+            total += value;
+        }
+        Arrays.sort(window);
+
+        double meanMillis = total / (double) samples / NANOS_PER_MILLI;
+        return new TickStats(
+                samples,
+                Math.min(20.0, 1000.0 / Math.max(meanMillis, 0.001)),
+                meanMillis,
+                percentile(window, 0.50),
+                percentile(window, 0.95),
+                percentile(window, 0.99),
+                window[samples - 1] / NANOS_PER_MILLI
+        );
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Tick statistics over a window. Times are in milliseconds.
+     */
+    public record TickStats(int samples, double tps, double meanMillis, double p50Millis,
+                            double p95Millis, double p99Millis, double maxMillis) {
+
+        public String describe() {
+            return String.format("%.2f TPS, mean %.1fms, p50 %.1fms, p95 %.1fms, p99 %.1fms, max %.1fms",
+                    tps, meanMillis, p50Millis, p95Millis, p99Millis, maxMillis);
+        }
+    }
+}
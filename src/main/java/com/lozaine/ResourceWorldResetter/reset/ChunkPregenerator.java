@@ -0,0 +1,364 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.scheduler.ScheduledTask;
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import com.lozaine.ResourceWorldResetter.monitor.TickMonitor;
+import com.lozaine.ResourceWorldResetter.utils.ChunkSpiral;
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldBorder;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.ObjLongConsumer;
+import java.util.logging.Level;
+
+/**
+ * Generates the chunks around spawn after a reset, a few at a time on the main thread.
+ * The time spent per tick is halved whenever the {@link TickMonitor} reports the server busier than the target
+ * and grows back slowly while it isn't. Progress is saved so a restart resumes the job.
+ * Where regions tick on separate threads each chunk is handed to its region, and as handing off costs
+ * next to nothing the number of chunks per tick is capped instead.
+ */
+public class ChunkPregenerator {
+    private static final int REGION_CHUNKS = 32 * 32;
+    private static final int SAVE_INTERVAL_TICKS = 20 * 30;
+    private static final int REGIONIZED_CHUNKS_PER_TICK = 16;
+    // Load is averaged over several ticks, so a cut is given a second to show before the next one
+    private static final int BACKOFF_INTERVAL_TICKS = 20;
+
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final TickMonitor tickMonitor;
+    private final File progressFile;
+    private final int configuredRadius;
+    private final boolean regionOrder;
+    private final double maxMillisPerTick;
+    private final double minMillisPerTick;
+    private final double targetTickMillis;
+    private final int maxDispatchPerTick;
+    private final Deque<String> pending = new ArrayDeque<>();
+    private ObjLongConsumer<String> completionListener;
+
+    private ScheduledTask task;
+    private boolean paused;
+    private String worldName;
+    private int centerX;
+    private int centerZ;
+    private int radius;
+    private long position;
+    private long total;
+    private long generated;
+    // Positions passed that lie inside the radius, generated or not
+    private long visited;
+    private ChunkSpiral spiral;
+
+    // Per-tick state
+    private double budgetMillis;
+    private int backoffCooldown;
+    private int ticksSinceSave;
+    private double chunksPerSecond;
+    private long rateWindowStart;
+    private long rateWindowChunks;
+
+    // Chunk produced by the last call to nextChunk
+    private int chunkX;
+    private int chunkZ;
+
+    public ChunkPregenerator(Plugin plugin, TaskScheduler scheduler, TickMonitor tickMonitor, int radius, String order,
+                             double maxMillisPerTick, double minMillisPerTick, double targetTickMillis) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.tickMonitor = tickMonitor;
+        this.progressFile = new File(plugin.getDataFolder(), "pregen.yml");
+        this.configuredRadius = Math.max(0, radius);
+        this.regionOrder = "region".equalsIgnoreCase(order);
+        this.maxMillisPerTick = Math.max(1, maxMillisPerTick);
+        this.minMillisPerTick = Math.max(0.1, Math.min(minMillisPerTick, this.maxMillisPerTick));
+        this.targetTickMillis = Math.max(1, targetTickMillis);
+        this.maxDispatchPerTick = scheduler.isRegionized() ? REGIONIZED_CHUNKS_PER_TICK : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Sets a listener called with the world name and the number of chunks generated whenever a job finishes.
+     */
+    public void setCompletionListener(ObjLongConsumer<String> completionListener) {
+        this.completionListener = completionListener;
+    }
+
+    public boolean isRunning() { return task != null; }
+    public boolean isPaused() { return paused; }
+    public String getWorldName() { return worldName; }
+    public long getPosition() { return position; }
+    public long getTotal() { return total; }
+    public long getGenerated() { return generated; }
+    public double getChunksPerSecond() { return chunksPerSecond; }
+    public double getBudgetMillis() { return budgetMillis; }
+
+    public double getProgressPercent() {
+        return total == 0 ? 0 : position * 100.0 / total;
+    }
+
+    /**
+     * Estimated seconds until the job finishes, assuming every chunk still ahead has to be generated,
+     * or -1 if no rate has been measured yet.
+     */
+    public long getEtaSeconds() {
+        if (chunksPerSecond <= 0) return -1;
+        long remaining = Math.max(0, ChunkSpiral.count(radius) - visited);
+        return (long) (remaining / chunksPerSecond);
+    }
+
+    public String getEtaDisplay() {
+        long seconds = getEtaSeconds();
+        if (seconds < 0) return "unknown";
+        return (seconds / 3600) + "h " + (seconds / 60 % 60) + "m " + (seconds % 60) + "s";
+    }
+
+    /**
+     * Starts a job for the world, or queues it to start after the one that is running.
+     */
+    public void enqueue(World world) {
+        if (task == null) {
+            start(world);
+        } else if (!world.getName().equals(worldName) && !pending.contains(world.getName())) {
+            pending.add(world.getName());
+            LogUtil.log(plugin.getLogger(), "Chunk pre-generation for " + world.getName() + " queued after " + worldName, Level.INFO);
+        }
+    }
+
+    /**
+     * Starts a new job for the world, replacing any job that is already running.
+     */
+    public void start(World world) {
+        clear();
+
+        worldName = world.getName();
+        WorldBorder border = world.getWorldBorder();
+        if (configuredRadius > 0) {
+            Location spawn = world.getSpawnLocation();
+            centerX = spawn.getBlockX() >> 4;
+            centerZ = spawn.getBlockZ() >> 4;
+            radius = configuredRadius;
+        } else {
+            Location center = border.getCenter();
+            centerX = center.getBlockX() >> 4;
+            centerZ = center.getBlockZ() >> 4;
+            radius = (int) Math.min(Integer.MAX_VALUE / 2, Math.ceil(border.getSize() / 2 / 16));
+        }
+        position = 0;
+        generated = 0;
+        visited = 0;
+
+        LogUtil.log(plugin.getLogger(), "Starting chunk pre-generation for " + worldName + " (radius " + radius
+                + " chunks, " + (regionOrder ? "region" : "spiral") + " order)", Level.INFO);
+        begin();
+    }
+
+    /**
+     * Resumes a job saved by a previous run, if its world is loaded.
+     */
+    public void resume() {
+        if (!progressFile.exists()) return;
+
+        YamlConfiguration progress = YamlConfiguration.loadConfiguration(progressFile);
+        String savedWorld = progress.getString("world");
+        if (savedWorld == null || Bukkit.getWorld(savedWorld) == null) return;
+        if (progress.getBoolean("regionOrder") != regionOrder) {
+            LogUtil.log(plugin.getLogger(), "Pre-generation order changed, restarting the job for " + savedWorld, Level.INFO);
+            start(Bukkit.getWorld(savedWorld));
+            return;
+        }
+
+        worldName = savedWorld;
+        centerX = progress.getInt("centerX");
+        centerZ = progress.getInt("centerZ");
+        radius = progress.getInt("radius");
+        position = progress.getLong("position");
+        generated = progress.getLong("generated");
+        visited = progress.getLong("visited", position);
+
+        LogUtil.log(plugin.getLogger(), "Resuming chunk pre-generation for " + worldName + " at "
+                + String.format("%.1f", getProgressPercent()) + "%", Level.INFO);
+        begin();
+    }
+
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        if (paused) saveProgress();
+    }
+
+    /**
+     * Stops the job and keeps the saved progress so it can be resumed on the next start.
+     */
+    public void shutdown() {
+        if (task == null) return;
+        task.cancel();
+        task = null;
+        saveProgress();
+    }
+
+    /**
+     * Stops the job and any queued ones and forgets their progress.
+     */
+    public void stop() {
+        pending.clear();
+        clear();
+    }
+
+    private void clear() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        paused = false;
+        worldName = null;
+        total = 0;
+        position = 0;
+        progressFile.delete();
+    }
+
+    private void begin() {
+        long spiralRadius = regionOrder ? ((long) radius >> 5) + 1 : radius;
+        total = ChunkSpiral.count((int) spiralRadius) * (regionOrder ? REGION_CHUNKS : 1);
+        spiral = new ChunkSpiral();
+        spiral.skipTo(regionOrder ? position / REGION_CHUNKS : position);
+
+        paused = false;
+        budgetMillis = maxMillisPerTick;
+        backoffCooldown = 0;
+        rateWindowStart = System.nanoTime();
+        rateWindowChunks = 0;
+        chunksPerSecond = 0;
+        ticksSinceSave = 0;
+        saveProgress();
+        task = scheduler.runGlobalTimer(this::tick, 1L, 1L);
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        if (paused) return;
+
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            LogUtil.log(plugin.getLogger(), "Pre-generation world " + worldName + " is no longer loaded, pausing", Level.WARNING);
+            shutdown();
+            return;
+        }
+
+        // Back off hard when the server falls behind, recover slowly when it keeps up
+        if (backoffCooldown > 0) backoffCooldown--;
+        if (tickMonitor.isOverloaded(targetTickMillis)) {
+            if (backoffCooldown == 0) {
+                budgetMillis = Math.max(minMillisPerTick, budgetMillis / 2);
+                backoffCooldown = BACKOFF_INTERVAL_TICKS;
+            }
+        } else {
+            budgetMillis = Math.min(maxMillisPerTick, budgetMillis + 0.25);
+        }
+
+        long deadline = now + (long) (budgetMillis * 1_000_000);
+        int dispatched = 0;
+        while (position < total && System.nanoTime() < deadline && dispatched < maxDispatchPerTick) {
+            if (!nextChunk()) continue;
+            visited++;
+            if (!world.isChunkGenerated(chunkX, chunkZ)) {
+                int x = chunkX;
+                int z = chunkZ;
+                scheduler.executeAtLocation(new Location(world, x << 4, 0, z << 4), () -> {
+                    world.loadChunk(x, z, true);
+                    world.unloadChunkRequest(x, z);
+                });
+                generated++;
+                dispatched++;
+            }
+        }
+        updateRate(dispatched, now);
+
+        if (position >= total) {
+            LogUtil.log(plugin.getLogger(), "Chunk pre-generation for " + worldName + " finished, "
+                    + generated + " chunks generated", Level.INFO);
+            task.cancel();
+            task = null;
+            progressFile.delete();
+            if (completionListener != null) completionListener.accept(worldName, generated);
+            startPending();
+            return;
+        }
+
+        if (++ticksSinceSave >= SAVE_INTERVAL_TICKS) {
+            ticksSinceSave = 0;
+            saveProgress();
+        }
+    }
+
+    private void startPending() {
+        while (!pending.isEmpty()) {
+            World next = Bukkit.getWorld(pending.poll());
+            if (next != null) {
+                start(next);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves to the next position and stores its chunk coordinates.
+     *
+     * @return false if the position lies outside the radius and should be skipped
+     */
+    private boolean nextChunk() {
+        if (regionOrder) {
+            int local = (int) (position % REGION_CHUNKS);
+            int regionX = (centerX >> 5) + spiral.getX();
+            int regionZ = (centerZ >> 5) + spiral.getZ();
+            chunkX = (regionX << 5) + (local & 31);
+            chunkZ = (regionZ << 5) + (local >> 5);
+            position++;
+            if (local == REGION_CHUNKS - 1) spiral.advance();
+            return Math.abs(chunkX - centerX) <= radius && Math.abs(chunkZ - centerZ) <= radius;
+        }
+
+        chunkX = centerX + spiral.getX();
+        chunkZ = centerZ + spiral.getZ();
+        spiral.advance();
+        position++;
+        return true;
+    }
+
+    private void updateRate(int chunks, long now) {
+        rateWindowChunks += chunks;
+        long elapsed = now - rateWindowStart;
+        if (elapsed >= 5_000_000_000L) {
+            double rate = rateWindowChunks / (elapsed / 1_000_000_000.0);
+            chunksPerSecond = chunksPerSecond == 0 ? rate : chunksPerSecond * 0.7 + rate * 0.3;
+            rateWindowStart = now;
+            rateWindowChunks = 0;
+        }
+    }
+
+    private void saveProgress() {
+        if (worldName == null) return;
+
+        YamlConfiguration progress = new YamlConfiguration();
+        progress.set("world", worldName);
+        progress.set("centerX", centerX);
+        progress.set("centerZ", centerZ);
+        progress.set("radius", radius);
+        progress.set("regionOrder", regionOrder);
+        progress.set("position", position);
+        progress.set("generated", generated);
+        progress.set("visited", visited);
+        try {
+            progress.save(progressFile);
+        } catch (IOException e) {
+            LogUtil.log(plugin.getLogger(), "Failed to save pre-generation progress: " + e.getMessage(), Level.WARNING);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.scheduler.ScheduledTask;
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.World;
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.boss.BossBar;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Counts down the warning period of every pending reset from a single task that runs once a second
+ * while any countdown is active. Sends the configured warning tiers in chat, shows the final seconds
+ * on a boss bar or the action bar, and runs the reset once the countdown reaches zero.
+ * Countdowns can be postponed or cancelled until then. All methods must be called on the main thread.
+ */
+public class CountdownEngine {
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final Map<ManagedWorld, Countdown> countdowns = new LinkedHashMap<>();
+    private ScheduledTask task;
+
+    private int[] tiers = {1800, 600, 300, 60, 30, 10, 5, 4, 3, 2, 1};
+    private String display = "bossbar";
+    private int displaySeconds = 60;
+
+    public CountdownEngine(Plugin plugin, TaskScheduler scheduler) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param tierSeconds    remaining times in seconds at which a chat warning is sent
+     * @param display        "bossbar", "actionbar" or "none" for the final seconds
+     * @param displaySeconds how long before the reset the boss bar or action bar countdown starts
+     */
+    public void configure(List<Integer> tierSeconds, String display, int displaySeconds) {
+        if (!tierSeconds.isEmpty()) {
+            tiers = tierSeconds.stream().mapToInt(Integer::intValue).filter(seconds -> seconds > 0)
+                    .boxed().sorted(Collections.reverseOrder()).mapToInt(Integer::intValue).toArray();
+        }
+        this.display = display.toLowerCase();
+        this.displaySeconds = Math.max(1, displaySeconds);
+    }
+
+    public Collection<Countdown> getCountdowns() {
+        return Collections.unmodifiableCollection(new ArrayList<>(countdowns.values()));
+    }
+
+    public Countdown getCountdown(ManagedWorld world) {
+        return countdowns.get(world);
+    }
+
+    /**
+     * Starts the warning countdown of a reset and announces it.
+     *
+     * @param onExpire run on the main thread when the countdown reaches zero
+     */
+    public void start(ManagedWorld world, int seconds, Runnable onExpire) {
+        Countdown countdown = new Countdown(world, System.currentTimeMillis() + seconds * 1000L, onExpire);
+        skipTiers(countdown, seconds);
+        countdowns.put(world, countdown);
+        world.setState(ManagedWorld.State.WARNING);
+
+        Bukkit.broadcastMessage(ChatColor.YELLOW + "Resource world " + world.getName() + " will reset in " + formatDuration(seconds) + "!");
+        if (task == null) {
+            task = scheduler.runGlobalTimer(this::tick, 20L, 20L);
+        }
+    }
+
+    /**
+     * Pushes a pending reset back.
+     *
+     * @return false if the world has no countdown running
+     */
+    public boolean postpone(ManagedWorld world, int seconds) {
+        Countdown countdown = countdowns.get(world);
+        if (countdown == null) return false;
+
+        countdown.deadlineMillis += seconds * 1000L;
+        int remaining = countdown.getRemainingSeconds();
+        skipTiers(countdown, remaining);
+        countdown.removeBar();
+        Bukkit.broadcastMessage(ChatColor.YELLOW + "The reset of resource world " + world.getName() + " has been postponed, it now resets in "
+                + formatDuration(remaining) + ".");
+        LogUtil.log(plugin.getLogger(), "Reset of " + world.getName() + " postponed by " + seconds + " seconds", Level.INFO);
+        return true;
+    }
+
+    /**
+     * Cancels a pending reset and puts the world back to idle.
+     *
+     * @return false if the world has no countdown running
+     */
+    public boolean cancel(ManagedWorld world) {
+        Countdown countdown = countdowns.remove(world);
+        if (countdown == null) return false;
+
+        countdown.removeBar();
+        world.setState(ManagedWorld.State.IDLE);
+        Bukkit.broadcastMessage(ChatColor.GREEN + "The reset of resource world " + world.getName() + " has been cancelled.");
+        LogUtil.log(plugin.getLogger(), "Reset of " + world.getName() + " cancelled", Level.INFO);
+        stopIfIdle();
+        return true;
+    }
+
+    /**
+     * Drops every countdown without running it, for shutdown.
+     */
+    public void cancelAll() {
+        for (Countdown countdown : countdowns.values()) {
+            countdown.removeBar();
+        }
+        countdowns.clear();
+        stopIfIdle();
+    }
+
+    /**
+     * Marks every tier at or above the given remaining time as announced.
+     */
+    private void skipTiers(Countdown countdown, int remaining) {
+        int next = 0;
+        while (next < tiers.length && tiers[next] >= remaining) {
+            next++;
+        }
+        countdown.nextTier = next;
+    }
+
+    private void stopIfIdle() {
+        if (countdowns.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void tick() {
+        for (Countdown countdown : new ArrayList<>(countdowns.values())) {
+            int remaining = countdown.getRemainingSeconds();
+            if (remaining <= 0) {
+                countdowns.remove(countdown.world);
+                countdown.removeBar();
+                countdown.onExpire.run();
+                continue;
+            }
+
+            if (countdown.nextTier < tiers.length && remaining <= tiers[countdown.nextTier]) {
+                Bukkit.broadcastMessage(ChatColor.YELLOW + "Resource world " + countdown.world.getName() + " will reset in "
+                        + formatDuration(remaining) + "!");
+                skipTiers(countdown, remaining);
+            }
+
+            if (remaining <= displaySeconds) {
+                showCountdown(countdown, remaining);
+            }
+        }
+        stopIfIdle();
+    }
+
+    private void showCountdown(Countdown countdown, int remaining) {
+        World world = Bukkit.getWorld(countdown.world.getName());
+        if (world == null) return;
+
+        String text = ChatColor.RED + countdown.world.getName() + " resets in " + formatDuration(remaining);
+        if ("actionbar".equals(display)) {
+            for (Player player : world.getPlayers()) {
+                player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(text));
+            }
+        } else if ("bossbar".equals(display)) {
+            if (countdown.bar == null) {
+                countdown.bar = Bukkit.createBossBar(text, BarColor.RED, BarStyle.SOLID);
+            }
+            countdown.bar.setTitle(text);
+            countdown.bar.setProgress(Math.min(1.0, remaining / (double) displaySeconds));
+
+            // Only players in the world see the bar; drop those who left
+            List<Player> inWorld = world.getPlayers();
+            for (Player player : new ArrayList<>(countdown.bar.getPlayers())) {
+                if (!inWorld.contains(player)) countdown.bar.removePlayer(player);
+            }
+            for (Player player : inWorld) {
+                countdown.bar.addPlayer(player);
+            }
+        }
+    }
+
+    public static String formatDuration(int seconds) {
+        if (seconds >= 3600 && seconds % 3600 == 0) {
+            return (seconds / 3600) + (seconds == 3600 ? " hour" : " hours");
+        }
+        if (seconds >= 60) {
+            int minutes = (seconds + 59) / 60;
+            return minutes + (minutes == 1 ? " minute" : " minutes");
+        }
+        return seconds + (seconds == 1 ? " second" : " seconds");
+    }
+
+    /**
+     * A pending reset counting down.
+     */
+    public static class Countdown {
+        private final ManagedWorld world;
+        private final Runnable onExpire;
+        private long deadlineMillis;
+        // Index of the next warning tier to announce
+        private int nextTier;
+        private BossBar bar;
+
+        private Countdown(ManagedWorld world, long deadlineMillis, Runnable onExpire) {
+            this.world = world;
+            this.deadlineMillis = deadlineMillis;
+            this.onExpire = onExpire;
+        }
+
+        public ManagedWorld getWorld() { return world; }
+
+        public int getRemainingSeconds() {
+            return (int) Math.max(0, (deadlineMillis - System.currentTimeMillis() + 999) / 1000);
+        }
+
+        private void removeBar() {
+            if (bar != null) {
+                bar.removeAll();
+                bar = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.scheduler.ScheduledTask;
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+
+/**
+ * Moves every player out of a world before it is reset, a batch per tick so a full world doesn't
+ * teleport everyone in the same tick. The chunks at the destinations are loaded first and held
+ * with chunk tickets until the evacuation is over, and players are spread over the configured safe points.
+ * Players still in the world when the timeout runs out are moved all at once so the reset can go ahead.
+ * Each player is moved from their own entity task and chunk tickets are taken from the region owning
+ * the chunk, so the evacuation also works where regions tick on separate threads. With a transfer set,
+ * players are first offered to it, e.g. to be sent to another server behind the proxy; the evacuation then
+ * waits for them to leave and moves those still there when the timeout runs out.
+ */
+public class Evacuation {
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final World world;
+    private final List<Location> destinations;
+    private final int playersPerTick;
+    private final long maxNanosPerTick;
+    private final long timeoutTicks;
+    private final IntConsumer onDone;
+
+    private final Deque<Player> queue = new ArrayDeque<>();
+    private final Set<UUID> queued = new HashSet<>();
+    private final Set<UUID> transferred = new HashSet<>();
+    private Predicate<Player> transfer;
+    private ScheduledTask task;
+    private int preloaded;
+    private int nextDestination;
+    private int moved;
+    private int inFlight;
+    private long ticks;
+    private boolean timedOut;
+    private volatile boolean cancelled;
+    private boolean finished;
+
+    /**
+     * @param destinations where players are sent, used round-robin; must not be empty
+     * @param onDone       called on the main thread with the number of players moved once the world is empty
+     */
+    public Evacuation(Plugin plugin, TaskScheduler scheduler, World world, List<Location> destinations, int playersPerTick,
+                      double maxMillisPerTick, int timeoutSeconds, IntConsumer onDone) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.world = world;
+        this.destinations = destinations;
+        this.playersPerTick = Math.max(1, playersPerTick);
+        this.maxNanosPerTick = (long) (Math.max(0.1, maxMillisPerTick) * 1_000_000);
+        this.timeoutTicks = Math.max(1, timeoutSeconds) * 20L;
+        this.onDone = onDone;
+    }
+
+    /**
+     * Parses safe points written as "world,x,y,z" or "world,x,y,z,yaw,pitch". Points in worlds that
+     * aren't loaded, in the world being evacuated or that can't be parsed are skipped. Falls back to the
+     * spawn of the server's default world when no point is usable.
+     */
+    public static List<Location> resolveDestinations(List<String> safePoints, World evacuated) {
+        List<Location> destinations = new ArrayList<>();
+        for (String point : safePoints) {
+            String[] parts = point.split(",");
+            if (parts.length != 4 && parts.length != 6) continue;
+
+            World target = Bukkit.getWorld(parts[0].trim());
+            if (target == null || target.equals(evacuated)) continue;
+            try {
+                double x = Double.parseDouble(parts[1].trim());
+                double y = Double.parseDouble(parts[2].trim());
+                double z = Double.parseDouble(parts[3].trim());
+                float yaw = parts.length == 6 ? Float.parseFloat(parts[4].trim()) : 0;
+                float pitch = parts.length == 6 ? Float.parseFloat(parts[5].trim()) : 0;
+                destinations.add(new Location(target, x, y, z, yaw, pitch));
+            } catch (NumberFormatException ignored) {
+                // Skip malformed points
+            }
+        }
+
+        if (destinations.isEmpty()) {
+            destinations.add(Bukkit.getWorlds().get(0).getSpawnLocation());
+        }
+        return destinations;
+    }
+
+    /**
+     * @param transfer called from the player's own thread instead of teleporting them, returns false
+     *                 if the player should be teleported to a safe point after all
+     */
+    public void setTransfer(Predicate<Player> transfer) {
+        this.transfer = transfer;
+    }
+
+    public void start() {
+        enqueuePlayers();
+        if (queue.isEmpty()) {
+            onDone.accept(0);
+            return;
+        }
+
+        LogUtil.log(plugin.getLogger(), "Evacuating " + queue.size() + " players from " + world.getName() + " to "
+                + destinations.size() + " safe point(s)", Level.INFO);
+        task = scheduler.runGlobalTimer(this::tick, 1L, 1L);
+    }
+
+    /**
+     * Stops moving players and releases the chunk tickets, e.g. when the reset is cancelled. Teleports
+     * already under way still land, and the completion callback is not called. Must be called on the main thread.
+     */
+    public void cancel() {
+        if (cancelled || finished) return;
+        cancelled = true;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        queue.clear();
+        queued.clear();
+        releaseTickets();
+        LogUtil.log(plugin.getLogger(), "Evacuation of " + world.getName() + " cancelled after moving " + moved + " players", Level.INFO);
+    }
+
+    private void enqueuePlayers() {
+        for (Player player : world.getPlayers()) {
+            // Players being sent elsewhere are left to leave on their own until the timeout
+            if (transferred.contains(player.getUniqueId())) continue;
+            if (queued.add(player.getUniqueId())) {
+                queue.add(player);
+            }
+        }
+    }
+
+    private void tick() {
+        ticks++;
+
+        // Load one destination per tick before anyone is moved
+        if (preloaded < destinations.size()) {
+            Location destination = destinations.get(preloaded++);
+            scheduler.executeAtLocation(destination, () -> destination.getWorld().addPluginChunkTicket(
+                    destination.getBlockX() >> 4, destination.getBlockZ() >> 4, plugin));
+            return;
+        }
+
+        if (ticks > timeoutTicks) {
+            timedOut = true;
+            for (Player player : world.getPlayers()) {
+                transferred.remove(player.getUniqueId());
+            }
+            enqueuePlayers();
+            LogUtil.log(plugin.getLogger(), "Evacuation of " + world.getName() + " timed out, moving the remaining "
+                    + queue.size() + " players at once", Level.WARNING);
+            while (!queue.isEmpty()) {
+                moveNext();
+            }
+            // Stop ticking and wait only for the teleports still in progress
+            task.cancel();
+            task = null;
+            if (inFlight == 0) complete();
+            return;
+        }
+
+        long deadline = System.nanoTime() + maxNanosPerTick;
+        int batch = 0;
+        while (!queue.isEmpty() && batch < playersPerTick && System.nanoTime() < deadline) {
+            moveNext();
+            batch++;
+        }
+
+        if (queue.isEmpty() && inFlight == 0) {
+            // Pick up anyone who entered the world during the evacuation
+            enqueuePlayers();
+            if (queue.isEmpty() && !awaitingTransfers()) finish();
+        }
+    }
+
+    private void moveNext() {
+        Player player = queue.poll();
+        queued.remove(player.getUniqueId());
+        if (!player.isOnline()) return;
+
+        Predicate<Player> transfer = timedOut ? null : this.transfer;
+        Location destination = destinations.get(nextDestination);
+        nextDestination = (nextDestination + 1) % destinations.size();
+        inFlight++;
+        scheduler.executeForEntity(player, () -> {
+            if (cancelled || !world.equals(player.getWorld())) {
+                scheduler.executeGlobal(this::landed);
+                return;
+            }
+            if (transfer != null && transfer.test(player)) {
+                scheduler.executeGlobal(() -> {
+                    transferred.add(player.getUniqueId());
+                    landed();
+                });
+                return;
+            }
+            scheduler.teleport(player, destination).whenComplete((success, error) -> scheduler.executeGlobal(() -> {
+                if (Boolean.TRUE.equals(success)) {
+                    player.sendMessage(ChatColor.GREEN + "You have been teleported to safety - the resource world is being reset.");
+                    moved++;
+                }
+                landed();
+            }));
+        }, () -> scheduler.executeGlobal(this::landed));
+    }
+
+    private boolean awaitingTransfers() {
+        if (transferred.isEmpty()) return false;
+        for (Player player : world.getPlayers()) {
+            if (transferred.contains(player.getUniqueId())) return true;
+        }
+        return false;
+    }
+
+    private void landed() {
+        inFlight--;
+        if (cancelled) return;
+        // After a timeout the ticks have stopped and the last teleport to land completes the evacuation
+        if (task == null && inFlight == 0) complete();
+    }
+
+    private void finish() {
+        task.cancel();
+        task = null;
+        complete();
+    }
+
+    private void complete() {
+        finished = true;
+        releaseTickets();
+
+        // Players still here at the timeout were dropped from the transferred ones and teleported
+        moved += transferred.size();
+        LogUtil.log(plugin.getLogger(), "Moved " + moved + " players out of " + world.getName() + " in " + ticks + " ticks"
+                + (transferred.isEmpty() ? "" : ", " + transferred.size() + " of them to other servers"), Level.INFO);
+        onDone.accept(moved);
+    }
+
+    private void releaseTickets() {
+        for (int i = 0; i < preloaded; i++) {
+            Location destination = destinations.get(i);
+            scheduler.executeAtLocation(destination, () -> destination.getWorld().removePluginChunkTicket(
+                    destination.getBlockX() >> 4, destination.getBlockZ() >> 4, plugin));
+        }
+        preloaded = 0;
+    }
+}
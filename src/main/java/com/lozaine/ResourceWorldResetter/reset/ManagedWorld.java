@@ -0,0 +1,196 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.monitor.ResetTimings;
+import com.lozaine.ResourceWorldResetter.utils.CronExpression;
+import com.onarandombox.MultiverseCore.api.MVWorldManager;
+import org.bukkit.World;
+import org.bukkit.WorldType;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A resource world managed by the plugin: how it is created, when it resets and where it is in the reset cycle.
+ */
+public class ManagedWorld {
+    public enum State {
+        IDLE,
+        WARNING,
+        QUEUED,
+        RESETTING
+    }
+
+    private final String name;
+    private World.Environment environment = World.Environment.NORMAL;
+    private WorldType worldType = WorldType.NORMAL;
+    private String generator = "DEFAULT";
+    private String seed;
+    private String resetType = "daily";
+    private int restartTime = 3;
+    private int resetDay = 1;
+    private int resetWarningTime = 5;
+    // Cron schedules replace resetType, restartTime and resetDay when set
+    private List<CronExpression> schedules = List.of();
+    private RegionPruner regionPruner;
+    private StandbyWorld standbyWorld;
+
+    private State state = State.IDLE;
+    private ZonedDateTime nextReset;
+    private ResetTimings timings;
+    private ResetPipeline pipeline;
+
+    public ManagedWorld(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+    public World.Environment getEnvironment() { return environment; }
+    public String getResetType() { return resetType; }
+    public int getRestartTime() { return restartTime; }
+    public int getResetDay() { return resetDay; }
+    public int getResetWarningTime() { return resetWarningTime; }
+    public RegionPruner getRegionPruner() { return regionPruner; }
+    public StandbyWorld getStandbyWorld() { return standbyWorld; }
+    public State getState() { return state; }
+    public List<CronExpression> getSchedules() { return schedules; }
+    public ZonedDateTime getNextReset() { return nextReset; }
+    public ResetTimings getTimings() { return timings; }
+    public ResetPipeline getPipeline() { return pipeline; }
+
+    public void setResetType(String resetType) { this.resetType = resetType; }
+    public void setRestartTime(int restartTime) { this.restartTime = restartTime; }
+    public void setResetDay(int resetDay) { this.resetDay = resetDay; }
+    public void setResetWarningTime(int resetWarningTime) { this.resetWarningTime = resetWarningTime; }
+    public void setStandbyWorld(StandbyWorld standbyWorld) { this.standbyWorld = standbyWorld; }
+    public void setState(State state) { this.state = state; }
+    public void setTimings(ResetTimings timings) { this.timings = timings; }
+    public void setPipeline(ResetPipeline pipeline) { this.pipeline = pipeline; }
+    public void setNextReset(ZonedDateTime nextReset) { this.nextReset = nextReset; }
+
+    public boolean isBusy() {
+        return state != State.IDLE;
+    }
+
+    /**
+     * Reads the settings from a config section. Keys missing from the section fall back to the
+     * given defaults, so additional worlds inherit whatever they don't override from the primary world.
+     */
+    public void load(ConfigurationSection section, ManagedWorld defaults, Logger logger) {
+        ManagedWorld base = defaults != null ? defaults : new ManagedWorld(name);
+
+        environment = parseEnum(World.Environment.class, section.getString("environment"), base.environment, logger);
+        worldType = parseEnum(WorldType.class, section.getString("worldType"), base.worldType, logger);
+        generator = section.getString("generator", base.generator);
+        seed = section.getString("seed", base.seed);
+        resetType = section.getString("resetType", base.resetType);
+        restartTime = section.getInt("restartTime", base.restartTime);
+        resetDay = section.getInt("resetDay", base.resetDay);
+        resetWarningTime = section.getInt("resetWarningTime", base.resetWarningTime);
+        schedules = section.isSet("schedules") ? parseSchedules(section.getStringList("schedules"), logger) : base.schedules;
+
+        ConfigurationSection partial = section.getConfigurationSection("partialReset");
+        if (partial != null && partial.getBoolean("enabled", false)) {
+            regionPruner = new RegionPruner(logger,
+                    partial.getStringList("keepRegions"),
+                    partial.getStringList("keepAreas"));
+        } else {
+            regionPruner = null;
+        }
+    }
+
+    /**
+     * Creates (or loads, if the folder already exists) a world with this world's settings under the given name.
+     */
+    public boolean create(MVWorldManager worldManager, String worldName) {
+        return worldManager.addWorld(
+                worldName,
+                environment,
+                seed == null || seed.isEmpty() ? null : seed,
+                worldType,
+                true,
+                generator == null || generator.isEmpty() ? null : generator
+        );
+    }
+
+    /**
+     * Computes the next reset from resetType, restartTime and resetDay, strictly after the given time.
+     */
+    private LocalDateTime computeNextReset(LocalDateTime now) {
+        LocalDateTime next = now.withHour(restartTime).withMinute(0).withSecond(0).withNano(0);
+
+        // If current time is past reset time, schedule for next occurrence
+        if (now.compareTo(next) >= 0) {
+            next = next.plusDays(1);
+        }
+
+        if ("weekly".equals(resetType)) {
+            int currentDay = next.getDayOfWeek().getValue(); // 1 (Monday) to 7 (Sunday)
+            next = next.plusDays((resetDay - currentDay + 7) % 7);
+        } else if ("monthly".equals(resetType)) {
+            // Try this month first; short months clamp the day, which may already have passed
+            LocalDateTime month = now.withDayOfMonth(1);
+            for (int i = 0; i < 2; i++) {
+                int maxDay = month.getMonth().length(month.toLocalDate().isLeapYear());
+                next = month.withDayOfMonth(Math.min(resetDay, maxDay))
+                        .withHour(restartTime).withMinute(0).withSecond(0).withNano(0);
+                if (next.isAfter(now)) break;
+                month = month.plusMonths(1);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Computes when this world resets next, strictly after the given time. Cron schedules are used
+     * when any are configured, otherwise resetType, restartTime and resetDay.
+     */
+    public ZonedDateTime computeNextReset(ZonedDateTime now) {
+        if (schedules.isEmpty()) {
+            return computeNextReset(now.toLocalDateTime()).atZone(now.getZone());
+        }
+
+        ZonedDateTime next = null;
+        for (CronExpression schedule : schedules) {
+            ZonedDateTime candidate = schedule.next(now);
+            if (next == null || candidate.isBefore(next)) next = candidate;
+        }
+        return next;
+    }
+
+    /**
+     * Identifies the settings that decide when this world resets, so a reload that leaves them
+     * unchanged keeps the time already computed.
+     */
+    public String getScheduleKey() {
+        return schedules.isEmpty() ? resetType + "/" + restartTime + "/" + resetDay : schedules.toString();
+    }
+
+    private static List<CronExpression> parseSchedules(List<String> expressions, Logger logger) {
+        List<CronExpression> parsed = new ArrayList<>();
+        for (String expression : expressions) {
+            try {
+                CronExpression schedule = CronExpression.parse(expression);
+                // Rejects expressions that can never fire, like 30 February
+                schedule.next(ZonedDateTime.now());
+                parsed.add(schedule);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                logger.warning("Ignoring reset schedule '" + expression + "': " + e.getMessage());
+            }
+        }
+        return List.copyOf(parsed);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E fallback, Logger logger) {
+        if (value == null) return fallback;
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warning("Unknown " + type.getSimpleName() + " '" + value + "', using " + fallback);
+            return fallback;
+        }
+    }
+}
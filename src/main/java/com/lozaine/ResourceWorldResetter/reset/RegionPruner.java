@@ -0,0 +1,142 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.utils.IoThrottle;
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Deletes the region files of an unloaded world except for a keep-list of regions,
+ * so only the deleted regions are generated again when the world is loaded.
+ */
+public class RegionPruner {
+    // Block, entity and point-of-interest data are stored in separate region files with the same coordinates
+    private static final String[] REGION_FOLDERS = {"region", "entities", "poi"};
+    // Nether and End worlds created by Bukkit keep their data in a dimension subfolder
+    private static final String[] DIMENSION_FOLDERS = {"", "DIM-1", "DIM1"};
+
+    private final Logger logger;
+    private final Set<Long> keptRegions = new HashSet<>();
+
+    private long deletedFiles;
+    private long deletedBytes;
+
+    public RegionPruner(Logger logger, List<String> keepRegions, List<String> keepAreas) {
+        this.logger = logger;
+
+        for (String entry : keepRegions) {
+            String[] parts = entry.split(",");
+            try {
+                keptRegions.add(pack(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                LogUtil.log(logger, "Ignoring invalid keepRegions entry '" + entry + "', expected \"x,z\"", Level.WARNING);
+            }
+        }
+
+        for (String entry : keepAreas) {
+            String[] parts = entry.split(",");
+            try {
+                int minX = Integer.parseInt(parts[0].trim());
+                int minZ = Integer.parseInt(parts[1].trim());
+                int maxX = Integer.parseInt(parts[2].trim());
+                int maxZ = Integer.parseInt(parts[3].trim());
+                // A region covers 512x512 blocks
+                for (int x = Math.min(minX, maxX) >> 9; x <= Math.max(minX, maxX) >> 9; x++) {
+                    for (int z = Math.min(minZ, maxZ) >> 9; z <= Math.max(minZ, maxZ) >> 9; z++) {
+                        keptRegions.add(pack(x, z));
+                    }
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                LogUtil.log(logger, "Ignoring invalid keepAreas entry '" + entry + "', expected \"minX,minZ,maxX,maxZ\"", Level.WARNING);
+            }
+        }
+    }
+
+    public int getKeptRegionCount() { return keptRegions.size(); }
+    public long getDeletedFiles() { return deletedFiles; }
+    public long getDeletedBytes() { return deletedBytes; }
+
+    /**
+     * Deletes every region file outside the keep-list. The world must be unloaded.
+     *
+     * @param throttle paces the deletions, may be null; an interrupted thread stops deleting
+     * @return false if a file could not be deleted or the thread was interrupted
+     */
+    public boolean prune(File worldFolder, IoThrottle throttle) {
+        deletedFiles = 0;
+        deletedBytes = 0;
+        boolean success = true;
+
+        for (String dimension : DIMENSION_FOLDERS) {
+            for (String folder : REGION_FOLDERS) {
+                Path regionDir = worldFolder.toPath().resolve(dimension).resolve(folder);
+                if (Files.isDirectory(regionDir)) {
+                    success &= pruneFolder(regionDir, throttle);
+                }
+            }
+        }
+
+        LogUtil.log(logger, "Deleted " + deletedFiles + " region files (" + (deletedBytes / (1024 * 1024)) + " MB), kept "
+                + keptRegions.size() + " regions", Level.INFO);
+        return success;
+    }
+
+    private boolean pruneFolder(Path regionDir, IoThrottle throttle) {
+        boolean success = true;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(regionDir)) {
+            for (Path file : files) {
+                long region = regionOf(file.getFileName().toString());
+                if (region == Long.MIN_VALUE || keptRegions.contains(region)) continue;
+
+                try {
+                    long size = Files.size(file);
+                    if (throttle != null) {
+                        throttle.acquire(size);
+                        if (Thread.currentThread().isInterrupted()) return false;
+                    }
+                    Files.delete(file);
+                    deletedFiles++;
+                    deletedBytes += size;
+                } catch (IOException e) {
+                    LogUtil.log(logger, "Failed to delete " + file + ": " + e.getMessage(), Level.SEVERE);
+                    success = false;
+                }
+            }
+        } catch (IOException e) {
+            LogUtil.log(logger, "Failed to list " + regionDir + ": " + e.getMessage(), Level.SEVERE);
+            return false;
+        }
+        return success;
+    }
+
+    /**
+     * Returns the packed region coordinates for r.X.Z.mca files and c.X.Z.mcc oversized chunk files,
+     * or Long.MIN_VALUE for anything else.
+     */
+    private static long regionOf(String fileName) {
+        String[] parts = fileName.split("\\.");
+        if (parts.length != 4) return Long.MIN_VALUE;
+
+        try {
+            int x = Integer.parseInt(parts[1]);
+            int z = Integer.parseInt(parts[2]);
+            if (parts[0].equals("r") && parts[3].equals("mca")) return pack(x, z);
+            if (parts[0].equals("c") && parts[3].equals("mcc")) return pack(x >> 5, z >> 5);
+        } catch (NumberFormatException ignored) {
+        }
+        return Long.MIN_VALUE;
+    }
+
+    private static long pack(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,177 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+import org.bukkit.ChatColor;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Write-ahead journal of running resets. Every stage is appended and forced to disk before it runs,
+ * as is the commit that marks the old world as being destroyed, so after a crash the journal tells how
+ * far each unfinished reset got. The file is emptied whenever no reset is running, keeping it a few lines long.
+ * Operators are told what was recovered in the log and when they join.
+ */
+public class ResetJournal implements Listener {
+    private static final String BEGIN = "BEGIN";
+    private static final String COMMIT = "COMMIT";
+    private static final String END = "END";
+
+    private final Plugin plugin;
+    private final Path file;
+    private final Set<String> open = new HashSet<>();
+    private final List<String> notices = new ArrayList<>();
+    private final Set<UUID> notified = new HashSet<>();
+
+    public ResetJournal(Plugin plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "reset-journal.log").toPath();
+    }
+
+    /**
+     * How far an unfinished reset got before the server stopped.
+     *
+     * @param stage     the last stage that was started
+     * @param committed whether removing the old world had begun
+     */
+    public record Unfinished(String worldName, ResetPipeline.Stage stage, boolean committed, long startedAt) {
+    }
+
+    public void begin(String worldName, ResetPipeline.Stage stage) {
+        synchronized (this) {
+            open.add(worldName);
+        }
+        append(worldName, BEGIN, stage.name());
+    }
+
+    public void commit(String worldName) {
+        append(worldName, COMMIT, "");
+    }
+
+    public void end(String worldName, ResetPipeline.State state) {
+        boolean idle;
+        synchronized (this) {
+            open.remove(worldName);
+            idle = open.isEmpty();
+        }
+        if (idle) {
+            truncate();
+        } else {
+            append(worldName, END, state.name());
+        }
+    }
+
+    /**
+     * Reads the resets that never finished and empties the journal. Called once on startup,
+     * before any reset can run.
+     */
+    public List<Unfinished> readUnfinished() {
+        Map<String, Unfinished> unfinished = new LinkedHashMap<>();
+        if (Files.exists(file)) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    String[] parts = line.split("\t", -1);
+                    // A crash can cut the last line short
+                    if (parts.length != 4) continue;
+
+                    String worldName = parts[1];
+                    Unfinished previous = unfinished.get(worldName);
+                    switch (parts[2]) {
+                        case BEGIN -> {
+                            ResetPipeline.Stage stage;
+                            try {
+                                stage = ResetPipeline.Stage.valueOf(parts[3]);
+                            } catch (IllegalArgumentException e) {
+                                continue;
+                            }
+                            // The first stage starts a new run, even after a run that failed past its commit
+                            boolean newRun = previous == null || stage == ResetPipeline.Stage.PREPARE;
+                            long startedAt = newRun ? parseLong(parts[0]) : previous.startedAt();
+                            boolean committed = !newRun && previous.committed();
+                            unfinished.put(worldName, new Unfinished(worldName, stage, committed, startedAt));
+                        }
+                        case COMMIT -> {
+                            if (previous != null) {
+                                unfinished.put(worldName, new Unfinished(worldName, previous.stage(), true, previous.startedAt()));
+                            }
+                        }
+                        case END -> unfinished.remove(worldName);
+                        default -> { }
+                    }
+                }
+            } catch (IOException e) {
+                LogUtil.log(plugin.getLogger(), "Failed to read the reset journal: " + e.getMessage(), Level.SEVERE);
+            }
+        }
+        truncate();
+        return new ArrayList<>(unfinished.values());
+    }
+
+    /**
+     * Logs a recovery and keeps it to show to operators who join later.
+     */
+    public void notice(String message) {
+        LogUtil.log(plugin.getLogger(), message, Level.WARNING);
+        notices.add(message);
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        if (notices.isEmpty() || !event.getPlayer().hasPermission("resourceworldresetter.admin")) return;
+        if (!notified.add(event.getPlayer().getUniqueId())) return;
+
+        event.getPlayer().sendMessage(ChatColor.GOLD + "[ResourceWorldResetter] Recovered from an interrupted reset:");
+        for (String notice : notices) {
+            event.getPlayer().sendMessage(ChatColor.GRAY + "- " + notice);
+        }
+    }
+
+    private synchronized void append(String worldName, String event, String detail) {
+        String line = System.currentTimeMillis() + "\t" + worldName + "\t" + event + "\t" + detail + "\n";
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            LogUtil.log(plugin.getLogger(), "Failed to write the reset journal: " + e.getMessage(), Level.SEVERE);
+        }
+    }
+
+    private synchronized void truncate() {
+        if (!Files.exists(file)) return;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LogUtil.log(plugin.getLogger(), "Failed to clear the reset journal: " + e.getMessage(), Level.WARNING);
+        }
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
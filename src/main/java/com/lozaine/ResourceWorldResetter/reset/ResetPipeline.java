@@ -0,0 +1,322 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.monitor.ResetTimings;
+import com.lozaine.ResourceWorldResetter.monitor.TaskBudget;
+import com.lozaine.ResourceWorldResetter.scheduler.ScheduledTask;
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Runs the reset of one world as a fixed sequence of stages. Each stage starts on the thread it is
+ * declared for and reports back through its {@link StageContext}; a stage that doesn't report within its
+ * timeout fails, unless the reset has committed, in which case it is only logged. When a stage fails or
+ * the reset is cancelled, the undo actions of the running stage and the stages that already completed run
+ * in reverse order, so the world ends up as it was before the reset. Once a stage commits, meaning it is about to destroy the
+ * old world, the reset can no longer be cancelled or undone. Every stage and the commit are written to the
+ * {@link ResetJournal} before they run, so a reset that fails after its commit or is cut short by a crash
+ * is finished on the next start. State changes happen on the main thread.
+ */
+public class ResetPipeline {
+    public enum Stage {
+        PREPARE(null),
+        EVACUATE(ResetTimings.Phase.EVACUATION),
+        UNLOAD(ResetTimings.Phase.UNLOAD),
+        REMOVE(ResetTimings.Phase.DELETE),
+        CREATE(ResetTimings.Phase.CREATE),
+        WARMUP(null);
+
+        private final ResetTimings.Phase phase;
+
+        Stage(ResetTimings.Phase phase) {
+            this.phase = phase;
+        }
+    }
+
+    public enum State {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    /**
+     * Thread a stage starts on: the main thread for world and player work, a background thread for file work.
+     */
+    public enum Runs {
+        MAIN,
+        IO
+    }
+
+    @FunctionalInterface
+    public interface StageAction {
+        /**
+         * Starts the stage. It must eventually call {@link StageContext#complete()} or {@link StageContext#fail(String)}.
+         */
+        void run(StageContext context);
+    }
+
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final TaskBudget budget;
+    private final ResetJournal journal;
+    private final String worldName;
+    private final ResetTimings timings;
+    private final Consumer<ResetPipeline> onFinish;
+    private final List<StageDefinition> stages = new ArrayList<>();
+    private final Deque<StageDefinition> completed = new ArrayDeque<>();
+
+    private State state = State.PENDING;
+    private int index = -1;
+    private boolean committed;
+    private String failure;
+    private ScheduledTask timeout;
+
+    /**
+     * @param onFinish called on the main thread once the pipeline has completed, failed or been cancelled
+     */
+    public ResetPipeline(Plugin plugin, TaskScheduler scheduler, TaskBudget budget, ResetJournal journal, String worldName,
+                         ResetTimings timings, Consumer<ResetPipeline> onFinish) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.budget = budget;
+        this.journal = journal;
+        this.worldName = worldName;
+        this.timings = timings;
+        this.onFinish = onFinish;
+    }
+
+    /**
+     * Adds the next stage.
+     *
+     * @param timeoutSeconds how long the stage may take, 0 for no limit
+     * @param undo           reverts or stops the stage if it or a later stage fails, or the reset is cancelled,
+     *                       before the pipeline commits; may be null
+     */
+    public ResetPipeline stage(Stage stage, Runs runs, long timeoutSeconds, StageAction action, Runnable undo) {
+        stages.add(new StageDefinition(stage, runs, timeoutSeconds, action, undo));
+        return this;
+    }
+
+    public ResetPipeline stage(Stage stage, Runs runs, long timeoutSeconds, StageAction action) {
+        return stage(stage, runs, timeoutSeconds, action, null);
+    }
+
+    public synchronized State getState() { return state; }
+    public synchronized boolean isCommitted() { return committed; }
+    public String getFailure() { return failure; }
+    public String getWorldName() { return worldName; }
+
+    /**
+     * Returns the stage that is running, or null if the pipeline isn't running.
+     */
+    public synchronized Stage getStage() {
+        return state == State.RUNNING ? stages.get(index).stage : null;
+    }
+
+    public void start() {
+        synchronized (this) {
+            if (state != State.PENDING) return;
+            state = State.RUNNING;
+        }
+        next();
+    }
+
+    /**
+     * Stops the reset and undoes the stages run so far. Must be called on the main thread.
+     *
+     * @return false if the pipeline has finished or has already committed
+     */
+    public boolean cancel() {
+        boolean started;
+        synchronized (this) {
+            started = state != State.PENDING;
+            if (started && (state != State.RUNNING || committed)) return false;
+            // Nothing has run or been journaled yet
+            if (!started) state = State.CANCELLED;
+        }
+        if (!started) {
+            failure = "cancelled before it started";
+            LogUtil.log(plugin.getLogger(), "Reset of " + worldName + " " + failure, Level.WARNING);
+            onFinish.accept(this);
+            return true;
+        }
+        abort(State.CANCELLED, "cancelled during " + getStage());
+        return true;
+    }
+
+    private void next() {
+        StageDefinition definition;
+        synchronized (this) {
+            index++;
+            if (index >= stages.size()) {
+                state = State.COMPLETED;
+                definition = null;
+            } else {
+                definition = stages.get(index);
+            }
+        }
+        if (definition == null) {
+            journal.end(worldName, State.COMPLETED);
+            onFinish.accept(this);
+            return;
+        }
+
+        journal.begin(worldName, definition.stage);
+        if (definition.stage.phase != null) timings.begin(definition.stage.phase);
+        StageContext context = new StageContext(index);
+        if (definition.timeoutSeconds > 0) {
+            timeout = scheduler.runGlobalLater(() -> {
+                if (!context.isActive()) return;
+                if (isCommitted()) {
+                    // Failing now would leave the world missing until a restart, so the stage is left to finish
+                    LogUtil.log(plugin.getLogger(), "Reset stage " + definition.stage + " of " + worldName + " is still running after "
+                            + definition.timeoutSeconds + "s, waiting for it since the old world is already being removed", Level.WARNING);
+                    return;
+                }
+                abort(State.FAILED, definition.stage + " timed out after " + definition.timeoutSeconds + "s");
+            }, definition.timeoutSeconds * 20);
+        }
+
+        if (definition.runs == Runs.IO) {
+            scheduler.runAsync(() -> runStage(definition, context));
+        } else {
+            budget.measure(label(definition.stage), () -> runStage(definition, context));
+        }
+    }
+
+    private void runStage(StageDefinition definition, StageContext context) {
+        try {
+            definition.action.run(context);
+        } catch (RuntimeException e) {
+            LogUtil.log(plugin.getLogger(), "Reset stage " + definition.stage + " of " + worldName + " threw " + e, Level.SEVERE);
+            context.fail(e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    private void abort(State endState, String reason) {
+        boolean undo;
+        synchronized (this) {
+            if (state != State.RUNNING) return;
+            state = endState;
+            undo = !committed;
+        }
+        failure = reason;
+        if (timeout != null) {
+            timeout.cancel();
+            timeout = null;
+        }
+
+        LogUtil.log(plugin.getLogger(), "Reset of " + worldName + " " + (endState == State.CANCELLED ? "" : "failed: ") + reason,
+                endState == State.CANCELLED ? Level.WARNING : Level.SEVERE);
+        if (undo) {
+            // The stage that was running may have started work of its own, e.g. an evacuation
+            completed.push(stages.get(index));
+            while (!completed.isEmpty()) {
+                StageDefinition done = completed.pop();
+                if (done.undo == null) continue;
+                try {
+                    done.undo.run();
+                } catch (RuntimeException e) {
+                    LogUtil.log(plugin.getLogger(), "Undoing reset stage " + done.stage + " of " + worldName + " failed: " + e, Level.SEVERE);
+                }
+            }
+        } else {
+            LogUtil.log(plugin.getLogger(), "The old world " + worldName + " was already being removed and can't be restored, "
+                    + "the reset will be finished on the next start", Level.SEVERE);
+        }
+        completed.clear();
+        // A reset that got past its commit stays open in the journal, so the next start finishes it
+        if (undo) journal.end(worldName, endState);
+        onFinish.accept(this);
+    }
+
+    private static String label(Stage stage) {
+        return "reset " + stage.name().toLowerCase();
+    }
+
+    private record StageDefinition(Stage stage, Runs runs, long timeoutSeconds, StageAction action, Runnable undo) {
+    }
+
+    /**
+     * Handle a stage uses to report back. Calls made after the stage timed out or the pipeline was
+     * cancelled are ignored, and may be made from any thread.
+     */
+    public class StageContext {
+        private final int stageIndex;
+
+        private StageContext(int stageIndex) {
+            this.stageIndex = stageIndex;
+        }
+
+        public boolean isActive() {
+            synchronized (ResetPipeline.this) {
+                return state == State.RUNNING && index == stageIndex;
+            }
+        }
+
+        /**
+         * Marks the point of no return: from here on the old world is being destroyed.
+         *
+         * @return false if the stage is no longer active, in which case it must not touch the world
+         */
+        public boolean commit() {
+            synchronized (ResetPipeline.this) {
+                if (state != State.RUNNING || index != stageIndex) return false;
+                committed = true;
+                journal.commit(worldName);
+                return true;
+            }
+        }
+
+        public void complete() {
+            onMain(() -> {
+                StageDefinition definition = stages.get(stageIndex);
+                if (timeout != null) {
+                    timeout.cancel();
+                    timeout = null;
+                }
+                if (definition.stage.phase != null) timings.end(definition.stage.phase);
+                completed.push(definition);
+                next();
+            });
+        }
+
+        public void fail(String reason) {
+            scheduler.executeGlobal(() -> {
+                if (isActive()) abort(State.FAILED, stages.get(stageIndex).stage + ": " + reason);
+            });
+        }
+
+        /**
+         * Continues the stage on the main thread, unless it has stopped being active by then.
+         */
+        public void onMain(Runnable task) {
+            scheduler.executeGlobal(() -> {
+                if (isActive()) budget.measure(label(stages.get(stageIndex).stage), task);
+            });
+        }
+
+        /**
+         * Continues the stage on a background thread, unless it has stopped being active by then.
+         */
+        public void onIo(Runnable task) {
+            scheduler.runAsync(() -> {
+                if (!isActive()) return;
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    fail(e.getClass().getSimpleName() + ": " + e.getMessage());
+                }
+            });
+        }
+    }
+}
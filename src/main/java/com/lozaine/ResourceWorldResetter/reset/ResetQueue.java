@@ -0,0 +1,103 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+
+/**
+ * Runs world resets one after another, or up to a fixed number at a time, so resets that fall due
+ * together don't stack their unload, delete and create work into the same ticks.
+ * All methods must be called on the main thread.
+ */
+public class ResetQueue {
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final BiConsumer<ManagedWorld, Runnable> resetAction;
+    private final Deque<ManagedWorld> waiting = new ArrayDeque<>();
+    private final List<ManagedWorld> active = new ArrayList<>();
+
+    private int maxConcurrent;
+    private long delayBetweenTicks;
+
+    /**
+     * @param resetAction performs the reset of a world and runs the given callback once it has finished or failed
+     */
+    public ResetQueue(Plugin plugin, TaskScheduler scheduler, BiConsumer<ManagedWorld, Runnable> resetAction) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.resetAction = resetAction;
+    }
+
+    public void configure(int maxConcurrent, long delayBetweenSeconds) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.delayBetweenTicks = Math.max(0, delayBetweenSeconds) * 20;
+    }
+
+    public List<ManagedWorld> getWaiting() { return Collections.unmodifiableList(new ArrayList<>(waiting)); }
+    public List<ManagedWorld> getActive() { return Collections.unmodifiableList(active); }
+    public int getWaitingCount() { return waiting.size(); }
+
+    /**
+     * Returns the 1-based position of the world in the waiting line, or 0 if it isn't waiting.
+     */
+    public int getPosition(ManagedWorld world) {
+        int position = 1;
+        for (ManagedWorld waitingWorld : waiting) {
+            if (waitingWorld == world) return position;
+            position++;
+        }
+        return 0;
+    }
+
+    public void enqueue(ManagedWorld world) {
+        if (waiting.contains(world) || active.contains(world)) return;
+
+        world.setState(ManagedWorld.State.QUEUED);
+        waiting.add(world);
+        if (active.size() >= maxConcurrent) {
+            LogUtil.log(plugin.getLogger(), "Reset of " + world.getName() + " queued behind " + active.size()
+                    + " running reset(s), position " + waiting.size(), Level.INFO);
+        }
+        drain();
+    }
+
+    /**
+     * Takes a world out of the waiting line. Resets that are already running can't be removed.
+     *
+     * @return false if the world wasn't waiting
+     */
+    public boolean remove(ManagedWorld world) {
+        if (!waiting.remove(world)) return false;
+        world.setState(ManagedWorld.State.IDLE);
+        return true;
+    }
+
+    private void drain() {
+        while (active.size() < maxConcurrent && !waiting.isEmpty()) {
+            ManagedWorld world = waiting.poll();
+            active.add(world);
+            world.setState(ManagedWorld.State.RESETTING);
+            resetAction.accept(world, () -> complete(world));
+        }
+    }
+
+    private void complete(ManagedWorld world) {
+        if (!active.remove(world)) return;
+        world.setState(ManagedWorld.State.IDLE);
+
+        if (waiting.isEmpty()) return;
+        if (delayBetweenTicks > 0) {
+            scheduler.runGlobalLater(this::drain, delayBetweenTicks);
+        } else {
+            drain();
+        }
+    }
+}
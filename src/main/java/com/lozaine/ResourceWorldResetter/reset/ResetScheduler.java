@@ -0,0 +1,364 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.monitor.TickMonitor;
+import com.lozaine.ResourceWorldResetter.scheduler.ScheduledTask;
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+
+/**
+ * Fires scheduled resets by wall-clock time. Next reset times are computed as instants in the configured
+ * time zone, kept until the schedule of a world changes, and compared against the clock once a second,
+ * so server lag can't make a reset drift. The time of each world's last completed reset is saved in
+ * schedule.yml, which lets a reset missed while the server was down be caught up on startup.
+ * In window mode the scheduled time opens a reset window instead: the reset starts at the first check in
+ * the window where the world has few enough players and the server isn't busy, and is forced in time to
+ * finish its warning when the window closes. The average player count of each world per hour of the day
+ * is learned into schedule.yml, and a reset waits while a later hour in the window is expected to be quieter.
+ * All methods must be called on the main thread.
+ */
+public class ResetScheduler {
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final TickMonitor tickMonitor;
+    private final Consumer<ManagedWorld> resetAction;
+    private final File stateFile;
+    private final YamlConfiguration state;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private ScheduledTask task;
+
+    private ZoneId zone = ZoneId.systemDefault();
+    private long standbyLeadMillis;
+    private boolean runMissed;
+    private Duration missedMaxAge = Duration.ofHours(24);
+    private Duration offset = Duration.ZERO;
+    private long windowMillis;
+    private int windowMaxPlayers;
+    private double windowMaxTickMillis;
+    private int windowTickSeconds;
+    private boolean learnHistory;
+    private long checks;
+
+    /**
+     * @param resetAction starts the reset of a world whose scheduled time has come
+     */
+    public ResetScheduler(Plugin plugin, TaskScheduler scheduler, TickMonitor tickMonitor, Consumer<ManagedWorld> resetAction) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.tickMonitor = tickMonitor;
+        this.resetAction = resetAction;
+        this.stateFile = new File(plugin.getDataFolder(), "schedule.yml");
+        this.state = YamlConfiguration.loadConfiguration(stateFile);
+    }
+
+    /**
+     * @param timezone       zone id the schedules are interpreted in, empty for the system default
+     * @param missedPolicy   "run" to run a reset missed while the server was down, "skip" to wait for the next one
+     * @param missedMaxHours missed resets older than this are skipped even with the "run" policy
+     */
+    public void configure(String timezone, int standbyLeadMinutes, String missedPolicy, int missedMaxHours) {
+        ZoneId configured = ZoneId.systemDefault();
+        if (timezone != null && !timezone.isEmpty()) {
+            try {
+                configured = ZoneId.of(timezone);
+            } catch (Exception e) {
+                LogUtil.log(plugin.getLogger(), "Unknown time zone '" + timezone + "', using " + configured, Level.WARNING);
+            }
+        }
+        if (!configured.equals(zone)) {
+            // Every next reset time depends on the zone
+            entries.clear();
+        }
+        zone = configured;
+        standbyLeadMillis = Math.max(0, standbyLeadMinutes) * 60_000L;
+        runMissed = "run".equalsIgnoreCase(missedPolicy);
+        missedMaxAge = Duration.ofHours(Math.max(0, missedMaxHours));
+    }
+
+    public ZoneId getZone() { return zone; }
+
+    /**
+     * @param lengthMinutes how long the window after each scheduled time stays open, 0 to reset at the scheduled time
+     * @param maxPlayers    most players in the world for the reset to start before the window closes
+     * @param maxTickMillis highest main thread time per tick for the reset to start; where that isn't
+     *                      reported, tick intervals over the last tickSeconds are judged instead
+     * @param learn         whether to wait for hours that the per-hour history expects to be quieter
+     */
+    public void configureWindow(int lengthMinutes, int maxPlayers, double maxTickMillis, int tickSeconds, boolean learn) {
+        long length = Math.max(0, lengthMinutes) * 60_000L;
+        // The next reset time depends on whether a window is still open
+        if (length != windowMillis) entries.clear();
+        windowMillis = length;
+        windowMaxPlayers = Math.max(0, maxPlayers);
+        windowMaxTickMillis = maxTickMillis;
+        windowTickSeconds = Math.max(1, tickSeconds);
+        learnHistory = learn;
+    }
+
+    /**
+     * True while the reset window of a world is open and the reset waits for a quiet moment.
+     */
+    public boolean isWaitingInWindow(ManagedWorld world) {
+        Entry entry = entries.get(world.getName());
+        return entry != null && entry.windowOpen;
+    }
+
+    /**
+     * Shifts every scheduled reset by a fixed delay, so servers sharing a schedule reset one after another.
+     */
+    public void setOffset(Duration offset) {
+        if (!offset.equals(this.offset)) entries.clear();
+        this.offset = offset;
+    }
+
+    /**
+     * Runs any reset missed while the server was down, according to the missed-reset policy,
+     * then starts checking the schedules.
+     */
+    public void start(Collection<ManagedWorld> worlds) {
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        for (ManagedWorld world : worlds) {
+            long last = state.getLong(world.getName() + ".lastReset", 0);
+            if (last == 0) continue;
+
+            // Only the latest reset missed counts, however many fell due during a long downtime
+            ZonedDateTime due = latestDue(after -> nextReset(world, after), Instant.ofEpochMilli(last).atZone(zone), now);
+            if (due == null) continue;
+            // A window that is still open is picked up by the schedule itself
+            if (due.plus(Duration.ofMillis(windowMillis)).isAfter(now)) continue;
+
+            if (runMissed && Duration.between(due, now).compareTo(missedMaxAge) <= 0) {
+                LogUtil.log(plugin.getLogger(), "Reset of " + world.getName() + " due at " + due.toLocalDateTime()
+                        + " was missed while the server was down, running it now", Level.WARNING);
+                resetAction.accept(world);
+            } else {
+                LogUtil.log(plugin.getLogger(), "Reset of " + world.getName() + " due at " + due.toLocalDateTime()
+                        + " was missed while the server was down, skipping it", Level.WARNING);
+            }
+        }
+
+        refresh(worlds);
+        if (task == null) {
+            task = scheduler.runGlobalTimer(this::tick, 20L, 20L);
+        }
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Brings the schedule in line with the managed worlds. Worlds whose schedule settings didn't
+     * change keep their next reset time; removed worlds are dropped.
+     */
+    public void refresh(Collection<ManagedWorld> worlds) {
+        Set<String> names = new HashSet<>();
+        for (ManagedWorld world : worlds) {
+            names.add(world.getName());
+            Entry entry = entries.get(world.getName());
+            if (entry == null || entry.world != world || !entry.key.equals(world.getScheduleKey())) {
+                entry = new Entry(world);
+                entries.put(world.getName(), entry);
+                computeNext(entry, ZonedDateTime.now(zone));
+            }
+        }
+        entries.keySet().retainAll(names);
+    }
+
+    /**
+     * Records that a world finished a reset, so it isn't treated as missed after a restart.
+     */
+    public void recordReset(ManagedWorld world) {
+        state.set(world.getName() + ".lastReset", System.currentTimeMillis());
+        try {
+            state.save(stateFile);
+        } catch (IOException e) {
+            LogUtil.log(plugin.getLogger(), "Failed to save schedule state: " + e.getMessage(), Level.WARNING);
+        }
+    }
+
+    private void computeNext(Entry entry, ZonedDateTime after) {
+        ManagedWorld world = entry.world;
+        // Going back a window length finds a window that opened before now and is still open
+        ZonedDateTime next = nextReset(world, after.minus(Duration.ofMillis(windowMillis)));
+        // Unless the world already reset in it, e.g. before a restart
+        if (windowMillis > 0 && state.getLong(world.getName() + ".lastReset", 0) >= next.toInstant().toEpochMilli()) {
+            next = nextReset(world, next);
+        }
+        entry.nextMillis = next.toInstant().toEpochMilli();
+        entry.endMillis = entry.nextMillis + windowMillis;
+        // Forced early enough that the warning is over when the window closes
+        entry.forceMillis = Math.max(entry.nextMillis, entry.endMillis - world.getResetWarningTime() * 60_000L);
+        entry.windowOpen = false;
+        // The standby world has to be ready before the warning starts
+        entry.standbyMillis = entry.nextMillis - standbyLeadMillis - world.getResetWarningTime() * 60_000L;
+        entry.standbyStarted = false;
+        world.setNextReset(next);
+
+        long minutes = Math.max(0, (entry.nextMillis - System.currentTimeMillis()) / 60_000);
+        LogUtil.log(plugin.getLogger(), "Scheduled reset of " + world.getName() + " for " + next.toLocalDateTime()
+                + (windowMillis > 0 ? " to " + Instant.ofEpochMilli(entry.endMillis).atZone(zone).toLocalDateTime() : "")
+                + " " + zone.getId() + " (in " + (minutes / 60) + " hours " + (minutes % 60) + " minutes)", Level.INFO);
+    }
+
+    /**
+     * Returns the latest time a schedule fell due after the last reset and no later than now,
+     * or null if it hasn't fallen due since.
+     *
+     * @param next gives the first scheduled time strictly after the one passed in
+     */
+    static ZonedDateTime latestDue(UnaryOperator<ZonedDateTime> next, ZonedDateTime lastReset, ZonedDateTime now) {
+        ZonedDateTime due = null;
+        ZonedDateTime candidate = next.apply(lastReset);
+        while (!candidate.isAfter(now)) {
+            due = candidate;
+            candidate = next.apply(due);
+        }
+        return due;
+    }
+
+    private ZonedDateTime nextReset(ManagedWorld world, ZonedDateTime after) {
+        return world.computeNextReset(after.minus(offset)).plus(offset);
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        // Player counts are sampled once a minute for the per-hour history
+        if (windowMillis > 0 && learnHistory && checks++ % 60 == 0) sampleHistory(now);
+        for (Entry entry : entries.values()) {
+            StandbyWorld standby = entry.world.getStandbyWorld();
+            if (!entry.standbyStarted && standby != null && now >= entry.standbyMillis) {
+                entry.standbyStarted = true;
+                standby.prepare();
+            }
+
+            if (now >= entry.nextMillis) {
+                if (windowMillis > 0 && !windowAllows(entry, now)) continue;
+                LogUtil.log(plugin.getLogger(), "Executing scheduled reset task for " + entry.world.getName(), Level.INFO);
+                resetAction.accept(entry.world);
+                computeNext(entry, ZonedDateTime.ofInstant(Instant.ofEpochMilli(Math.max(now, entry.endMillis)), zone));
+            }
+        }
+    }
+
+    /**
+     * Decides whether the reset of a world with an open window starts now.
+     */
+    private boolean windowAllows(Entry entry, long now) {
+        World world = Bukkit.getWorld(entry.world.getName());
+        int players = world != null ? world.getPlayers().size() : 0;
+        double busyMillis = tickMonitor.getBusyMillis();
+        String load = players + " players, " + (busyMillis >= 0 ? String.format("MSPT %.1fms", busyMillis)
+                : String.format("p95 tick %.1fms", tickMonitor.getStats(windowTickSeconds).p95Millis()));
+
+        if (now >= entry.forceMillis) {
+            LogUtil.log(plugin.getLogger(), "Reset window of " + entry.world.getName() + " is closing, forcing the reset (" + load + ")",
+                    Level.INFO);
+            return true;
+        }
+        if (!entry.windowOpen) {
+            entry.windowOpen = true;
+            LogUtil.log(plugin.getLogger(), "Reset window of " + entry.world.getName() + " is open until "
+                    + Instant.ofEpochMilli(entry.endMillis).atZone(zone).format(DateTimeFormatter.ofPattern("HH:mm"))
+                    + ", waiting for at most " + windowMaxPlayers + " players and MSPT under " + windowMaxTickMillis + "ms", Level.INFO);
+        }
+        if (players > windowMaxPlayers || tickMonitor.isOverloaded(windowMaxTickMillis, windowTickSeconds)) return false;
+
+        double expected = learnHistory ? quietestLater(entry, now) : -1;
+        if (expected >= 0 && players > expected) return false;
+
+        LogUtil.log(plugin.getLogger(), "Reset window of " + entry.world.getName() + " found a quiet moment (" + load
+                + (expected >= 0 ? String.format(", no quieter hour expected, best later %.1f players", expected) : "") + ")", Level.INFO);
+        return true;
+    }
+
+    /**
+     * Returns the lowest average player count the history has for the hours still ahead in the window,
+     * or -1 if it has none.
+     */
+    private double quietestLater(Entry entry, long now) {
+        double quietest = -1;
+        ZonedDateTime hour = Instant.ofEpochMilli(now).atZone(zone).truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        while (hour.toInstant().toEpochMilli() < entry.forceMillis) {
+            String path = entry.world.getName() + ".history." + hour.getHour();
+            if (state.contains(path)) {
+                double players = state.getDouble(path);
+                if (quietest < 0 || players < quietest) quietest = players;
+            }
+            hour = hour.plusHours(1);
+        }
+        return quietest;
+    }
+
+    /**
+     * Adds the current player count of each world to the running hour, and folds a finished hour
+     * into the history, weighted so the last few days count the most.
+     */
+    private void sampleHistory(long now) {
+        int hour = Instant.ofEpochMilli(now).atZone(zone).getHour();
+        boolean changed = false;
+        for (Entry entry : entries.values()) {
+            if (entry.sampleHour != hour && entry.samples > 0) {
+                String path = entry.world.getName() + ".history." + entry.sampleHour;
+                double mean = entry.sampleSum / (double) entry.samples;
+                state.set(path, state.contains(path) ? state.getDouble(path) * 0.7 + mean * 0.3 : mean);
+                entry.sampleSum = 0;
+                entry.samples = 0;
+                changed = true;
+            }
+            entry.sampleHour = hour;
+
+            World world = Bukkit.getWorld(entry.world.getName());
+            entry.sampleSum += world != null ? world.getPlayers().size() : 0;
+            entry.samples++;
+        }
+        if (!changed) return;
+        try {
+            state.save(stateFile);
+        } catch (IOException e) {
+            LogUtil.log(plugin.getLogger(), "Failed to save schedule state: " + e.getMessage(), Level.WARNING);
+        }
+    }
+
+    private static class Entry {
+        private final ManagedWorld world;
+        private final String key;
+        private long nextMillis;
+        private long endMillis;
+        private long forceMillis;
+        private boolean windowOpen;
+        private long standbyMillis;
+        private boolean standbyStarted;
+        private int sampleHour = -1;
+        private long sampleSum;
+        private int samples;
+
+        private Entry(ManagedWorld world) {
+            this.world = world;
+            this.key = world.getScheduleKey();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.scheduler.ScheduledTask;
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import com.lozaine.ResourceWorldResetter.utils.ChunkSpiral;
+import com.lozaine.ResourceWorldResetter.utils.LogUtil;
+import com.onarandombox.MultiverseCore.api.MVWorldManager;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Level;
+
+/**
+ * Generates the next resource world ahead of time under a staging name, so a reset only has to swap folders.
+ */
+public class StandbyWorld {
+    public static final String SUFFIX = "_standby";
+
+    public enum State {
+        NONE,
+        WARMING,
+        READY
+    }
+
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final MVWorldManager worldManager;
+    private final ManagedWorld managedWorld;
+    private final int warmupRadius;
+    private final int chunksPerTick;
+
+    private String standbyName;
+    private State state = State.NONE;
+    private ScheduledTask warmupTask;
+    private long generationStart;
+    private long generationMillis;
+
+    public StandbyWorld(Plugin plugin, TaskScheduler scheduler, MVWorldManager worldManager, ManagedWorld managedWorld, int warmupRadius, int chunksPerTick) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.worldManager = worldManager;
+        this.managedWorld = managedWorld;
+        this.warmupRadius = Math.max(0, warmupRadius);
+        this.chunksPerTick = Math.max(1, chunksPerTick);
+    }
+
+    public State getState() { return state; }
+    public boolean isReady() { return state == State.READY; }
+    public long getGenerationMillis() { return generationMillis; }
+
+    public boolean exists() {
+        return worldManager.isMVWorld(managedWorld.getName() + SUFFIX);
+    }
+
+    /**
+     * Creates the standby world for the managed world and starts warming up its spawn area.
+     * If the standby world is still registered from a previous run it is reused.
+     */
+    public void prepare() {
+        if (state != State.NONE) return;
+
+        standbyName = managedWorld.getName() + SUFFIX;
+        generationStart = System.currentTimeMillis();
+
+        if (!worldManager.isMVWorld(standbyName)) {
+            LogUtil.log(plugin.getLogger(), "Creating standby world: " + standbyName, Level.INFO);
+            if (!managedWorld.create(worldManager, standbyName)) {
+                LogUtil.log(plugin.getLogger(), "Failed to create standby world: " + standbyName, Level.SEVERE);
+                standbyName = null;
+                return;
+            }
+        }
+
+        World world = Bukkit.getWorld(standbyName);
+        if (world == null) {
+            LogUtil.log(plugin.getLogger(), "Standby world " + standbyName + " is not loaded, skipping warm-up", Level.WARNING);
+            markReady();
+            return;
+        }
+
+        state = State.WARMING;
+        warmUp(world);
+    }
+
+    private void warmUp(World world) {
+        int centerX = world.getSpawnLocation().getBlockX() >> 4;
+        int centerZ = world.getSpawnLocation().getBlockZ() >> 4;
+        long total = ChunkSpiral.count(warmupRadius);
+        ChunkSpiral spiral = new ChunkSpiral();
+
+        warmupTask = scheduler.runGlobalTimer(() -> {
+            for (int i = 0; i < chunksPerTick && spiral.getIndex() < total; i++) {
+                int x = centerX + spiral.getX();
+                int z = centerZ + spiral.getZ();
+                if (!world.isChunkLoaded(x, z)) {
+                    scheduler.executeAtLocation(new Location(world, x << 4, 0, z << 4), () -> {
+                        world.loadChunk(x, z, true);
+                        world.unloadChunkRequest(x, z);
+                    });
+                }
+                spiral.advance();
+            }
+
+            if (spiral.getIndex() >= total) {
+                warmupTask.cancel();
+                warmupTask = null;
+                markReady();
+            }
+        }, 1L, 1L);
+    }
+
+    private void markReady() {
+        state = State.READY;
+        generationMillis = System.currentTimeMillis() - generationStart;
+        LogUtil.log(plugin.getLogger(), "Standby world " + standbyName + " ready after " + generationMillis + "ms", Level.INFO);
+    }
+
+    /**
+     * Moves the standby world into place under the live name. The live world must already be
+     * unloaded and its folder moved out of the way.
+     *
+     * @return true if the world was loaded under the live name
+     */
+    public boolean swapIn() {
+        String worldName = managedWorld.getName();
+        if (state != State.READY) return false;
+
+        if (!worldManager.unloadWorld(standbyName)) {
+            LogUtil.log(plugin.getLogger(), "Failed to unload standby world: " + standbyName, Level.SEVERE);
+            return false;
+        }
+        worldManager.removeWorldFromConfig(standbyName);
+
+        Path source = new File(Bukkit.getWorldContainer(), standbyName).toPath();
+        Path target = new File(Bukkit.getWorldContainer(), worldName).toPath();
+        try {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target);
+            }
+            // The standby world kept its own UID, drop it so the server assigns a fresh one under the live name
+            Files.deleteIfExists(target.resolve("uid.dat"));
+        } catch (IOException e) {
+            LogUtil.log(plugin.getLogger(), "Failed to move standby world into place: " + e.getMessage(), Level.SEVERE);
+            reset();
+            return false;
+        }
+
+        reset();
+        return managedWorld.create(worldManager, worldName);
+    }
+
+    /**
+     * Stops warming up and removes the standby world entirely.
+     */
+    public void discard() {
+        if (standbyName != null && worldManager.isMVWorld(standbyName)) {
+            worldManager.deleteWorld(standbyName, true, true);
+        }
+        reset();
+    }
+
+    private void reset() {
+        if (warmupTask != null) {
+            warmupTask.cancel();
+            warmupTask = null;
+        }
+        standbyName = null;
+        state = State.NONE;
+    }
+}
@@ -0,0 +1,97 @@
+package com.lozaine.ResourceWorldResetter.scheduler;
+
+import com.lozaine.ResourceWorldResetter.monitor.TaskBudget;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs every task that goes to the main thread or a region thread through a {@link TaskBudget}, labelled
+ * with the class that scheduled it. Async tasks are passed through unmeasured.
+ */
+public class BudgetedTaskScheduler implements TaskScheduler {
+    // Lambdas are named after the class that declares them, e.g. Evacuation$$Lambda/0x...
+    private static final ClassValue<String> LABELS = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            String name = type.getName();
+            name = name.substring(name.lastIndexOf('.') + 1);
+            int lambda = name.indexOf("$$");
+            return lambda > 0 ? name.substring(0, lambda) : name;
+        }
+    };
+
+    private final TaskScheduler delegate;
+    private final TaskBudget budget;
+
+    public BudgetedTaskScheduler(TaskScheduler delegate, TaskBudget budget) {
+        this.delegate = delegate;
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return delegate.isRegionized();
+    }
+
+    @Override
+    public ScheduledTask runGlobal(Runnable task) {
+        return delegate.runGlobal(measured(task));
+    }
+
+    @Override
+    public ScheduledTask runGlobalLater(Runnable task, long delayTicks) {
+        return delegate.runGlobalLater(measured(task), delayTicks);
+    }
+
+    @Override
+    public ScheduledTask runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return delegate.runGlobalTimer(measured(task), delayTicks, periodTicks);
+    }
+
+    @Override
+    public void executeGlobal(Runnable task) {
+        delegate.executeGlobal(measured(task));
+    }
+
+    @Override
+    public ScheduledTask runAtLocation(Location location, Runnable task) {
+        return delegate.runAtLocation(location, measured(task));
+    }
+
+    @Override
+    public void executeAtLocation(Location location, Runnable task) {
+        delegate.executeAtLocation(location, measured(task));
+    }
+
+    @Override
+    public ScheduledTask runForEntity(Entity entity, Runnable task, Runnable retired) {
+        return delegate.runForEntity(entity, measured(task), retired);
+    }
+
+    @Override
+    public void executeForEntity(Entity entity, Runnable task, Runnable retired) {
+        delegate.executeForEntity(entity, measured(task), retired);
+    }
+
+    @Override
+    public ScheduledTask runAsync(Runnable task) {
+        return delegate.runAsync(task);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> teleport(Entity entity, Location location) {
+        return delegate.teleport(entity, location);
+    }
+
+    @Override
+    public void cancelAll() {
+        delegate.cancelAll();
+    }
+
+    private Runnable measured(Runnable task) {
+        String label = LABELS.get(task.getClass());
+        return () -> budget.measure(label, task);
+    }
+}
@@ -0,0 +1,95 @@
+package com.lozaine.ResourceWorldResetter.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs everything but async tasks on the main thread through the Bukkit scheduler.
+ */
+public class BukkitTaskScheduler implements TaskScheduler {
+    private final Plugin plugin;
+
+    public BukkitTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return false;
+    }
+
+    @Override
+    public ScheduledTask runGlobal(Runnable task) {
+        return Bukkit.getScheduler().runTask(plugin, task)::cancel;
+    }
+
+    @Override
+    public ScheduledTask runGlobalLater(Runnable task, long delayTicks) {
+        return Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks)::cancel;
+    }
+
+    @Override
+    public ScheduledTask runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks)::cancel;
+    }
+
+    @Override
+    public void executeGlobal(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            runGlobal(task);
+        }
+    }
+
+    @Override
+    public ScheduledTask runAtLocation(Location location, Runnable task) {
+        return runGlobal(task);
+    }
+
+    @Override
+    public void executeAtLocation(Location location, Runnable task) {
+        executeGlobal(task);
+    }
+
+    @Override
+    public ScheduledTask runForEntity(Entity entity, Runnable task, Runnable retired) {
+        return runGlobal(() -> {
+            if (entity.isValid()) {
+                task.run();
+            } else if (retired != null) {
+                retired.run();
+            }
+        });
+    }
+
+    @Override
+    public void executeForEntity(Entity entity, Runnable task, Runnable retired) {
+        if (!Bukkit.isPrimaryThread()) {
+            runForEntity(entity, task, retired);
+        } else if (entity.isValid()) {
+            task.run();
+        } else if (retired != null) {
+            retired.run();
+        }
+    }
+
+    @Override
+    public ScheduledTask runAsync(Runnable task) {
+        return Bukkit.getScheduler().runTaskAsynchronously(plugin, task)::cancel;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> teleport(Entity entity, Location location) {
+        return CompletableFuture.completedFuture(entity.teleport(location));
+    }
+
+    @Override
+    public void cancelAll() {
+        Bukkit.getScheduler().cancelTasks(plugin);
+    }
+}
@@ -0,0 +1,183 @@
+package com.lozaine.ResourceWorldResetter.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Schedules through Folia's global region, region, entity and async schedulers. The plugin compiles
+ * against the Spigot API, so the Folia API is reached through reflection; the methods are looked up
+ * once when the scheduler is created.
+ */
+public class FoliaTaskScheduler implements TaskScheduler {
+    private static final String SCHEDULER_PACKAGE = "io.papermc.paper.threadedregions.scheduler.";
+
+    private final Plugin plugin;
+    private final Object globalScheduler;
+    private final Object regionScheduler;
+    private final Object asyncScheduler;
+
+    private final Method globalRun;
+    private final Method globalRunDelayed;
+    private final Method globalRunAtFixedRate;
+    private final Method globalCancelTasks;
+    private final Method regionRun;
+    private final Method entityGetScheduler;
+    private final Method entityRun;
+    private final Method asyncRunNow;
+    private final Method asyncCancelTasks;
+    private final Method taskCancel;
+    private final Method isGlobalTickThread;
+    private final Method ownsLocation;
+    private final Method ownsEntity;
+    private final Method teleportAsync;
+
+    public static boolean isSupported() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public FoliaTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        try {
+            Class<?> globalType = Class.forName(SCHEDULER_PACKAGE + "GlobalRegionScheduler");
+            Class<?> regionType = Class.forName(SCHEDULER_PACKAGE + "RegionScheduler");
+            Class<?> entityType = Class.forName(SCHEDULER_PACKAGE + "EntityScheduler");
+            Class<?> asyncType = Class.forName(SCHEDULER_PACKAGE + "AsyncScheduler");
+            Class<?> taskType = Class.forName(SCHEDULER_PACKAGE + "ScheduledTask");
+
+            globalScheduler = Bukkit.class.getMethod("getGlobalRegionScheduler").invoke(null);
+            regionScheduler = Bukkit.class.getMethod("getRegionScheduler").invoke(null);
+            asyncScheduler = Bukkit.class.getMethod("getAsyncScheduler").invoke(null);
+
+            globalRun = globalType.getMethod("run", Plugin.class, Consumer.class);
+            globalRunDelayed = globalType.getMethod("runDelayed", Plugin.class, Consumer.class, long.class);
+            globalRunAtFixedRate = globalType.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+            globalCancelTasks = globalType.getMethod("cancelTasks", Plugin.class);
+            regionRun = regionType.getMethod("run", Plugin.class, Location.class, Consumer.class);
+            entityGetScheduler = Entity.class.getMethod("getScheduler");
+            entityRun = entityType.getMethod("run", Plugin.class, Consumer.class, Runnable.class);
+            asyncRunNow = asyncType.getMethod("runNow", Plugin.class, Consumer.class);
+            asyncCancelTasks = asyncType.getMethod("cancelTasks", Plugin.class);
+            taskCancel = taskType.getMethod("cancel");
+            isGlobalTickThread = Bukkit.class.getMethod("isGlobalTickThread");
+            ownsLocation = Bukkit.class.getMethod("isOwnedByCurrentRegion", Location.class);
+            ownsEntity = Bukkit.class.getMethod("isOwnedByCurrentRegion", Entity.class);
+            teleportAsync = Entity.class.getMethod("teleportAsync", Location.class);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Folia scheduler API not available", e);
+        }
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return true;
+    }
+
+    @Override
+    public ScheduledTask runGlobal(Runnable task) {
+        return wrap(invoke(globalRun, globalScheduler, plugin, consumer(task)));
+    }
+
+    @Override
+    public ScheduledTask runGlobalLater(Runnable task, long delayTicks) {
+        // Folia rejects delays below one tick
+        return wrap(invoke(globalRunDelayed, globalScheduler, plugin, consumer(task), Math.max(1, delayTicks)));
+    }
+
+    @Override
+    public ScheduledTask runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return wrap(invoke(globalRunAtFixedRate, globalScheduler, plugin, consumer(task),
+                Math.max(1, delayTicks), Math.max(1, periodTicks)));
+    }
+
+    @Override
+    public void executeGlobal(Runnable task) {
+        if ((Boolean) invoke(isGlobalTickThread, null)) {
+            task.run();
+        } else {
+            runGlobal(task);
+        }
+    }
+
+    @Override
+    public ScheduledTask runAtLocation(Location location, Runnable task) {
+        return wrap(invoke(regionRun, regionScheduler, plugin, location, consumer(task)));
+    }
+
+    @Override
+    public void executeAtLocation(Location location, Runnable task) {
+        if ((Boolean) invoke(ownsLocation, null, location)) {
+            task.run();
+        } else {
+            runAtLocation(location, task);
+        }
+    }
+
+    @Override
+    public ScheduledTask runForEntity(Entity entity, Runnable task, Runnable retired) {
+        Object scheduler = invoke(entityGetScheduler, entity);
+        Object handle = invoke(entityRun, scheduler, plugin, consumer(task), retired);
+        if (handle == null) {
+            // The entity was already removed, the retired callback is not called in that case
+            if (retired != null) retired.run();
+            return ScheduledTask.NONE;
+        }
+        return wrap(handle);
+    }
+
+    @Override
+    public void executeForEntity(Entity entity, Runnable task, Runnable retired) {
+        if ((Boolean) invoke(ownsEntity, null, entity)) {
+            task.run();
+        } else {
+            runForEntity(entity, task, retired);
+        }
+    }
+
+    @Override
+    public ScheduledTask runAsync(Runnable task) {
+        return wrap(invoke(asyncRunNow, asyncScheduler, plugin, consumer(task)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Boolean> teleport(Entity entity, Location location) {
+        return (CompletableFuture<Boolean>) invoke(teleportAsync, entity, location);
+    }
+
+    @Override
+    public void cancelAll() {
+        invoke(globalCancelTasks, globalScheduler, plugin);
+        invoke(asyncCancelTasks, asyncScheduler, plugin);
+    }
+
+    private static Consumer<Object> consumer(Runnable task) {
+        return scheduledTask -> task.run();
+    }
+
+    private ScheduledTask wrap(Object handle) {
+        return () -> invoke(taskCancel, handle);
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.lozaine.ResourceWorldResetter.scheduler;
+
+/**
+ * Handle to a task scheduled through a {@link TaskScheduler}.
+ */
+@FunctionalInterface
+public interface ScheduledTask {
+    ScheduledTask NONE = () -> { };
+
+    void cancel();
+}
@@ -0,0 +1,61 @@
+package com.lozaine.ResourceWorldResetter.scheduler;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Schedules the plugin's work on the thread that owns what it touches. On Bukkit every kind of task
+ * runs on the main thread; on Folia global tasks run on the global region, location tasks on the region
+ * owning the location and entity tasks on the region the entity is in, wherever it moves.
+ * The run methods always schedule the task for a later tick, the execute methods run it right away
+ * when the calling thread already owns the target and only schedule it otherwise.
+ */
+public interface TaskScheduler {
+
+    /**
+     * Picks the Folia scheduler when running on Folia and the Bukkit one otherwise.
+     */
+    static TaskScheduler create(Plugin plugin) {
+        return FoliaTaskScheduler.isSupported() ? new FoliaTaskScheduler(plugin) : new BukkitTaskScheduler(plugin);
+    }
+
+    /**
+     * True on servers that tick regions on separate threads.
+     */
+    boolean isRegionized();
+
+    ScheduledTask runGlobal(Runnable task);
+
+    ScheduledTask runGlobalLater(Runnable task, long delayTicks);
+
+    ScheduledTask runGlobalTimer(Runnable task, long delayTicks, long periodTicks);
+
+    void executeGlobal(Runnable task);
+
+    ScheduledTask runAtLocation(Location location, Runnable task);
+
+    void executeAtLocation(Location location, Runnable task);
+
+    /**
+     * @param retired run instead of the task if the entity is removed before the task could run
+     */
+    ScheduledTask runForEntity(Entity entity, Runnable task, Runnable retired);
+
+    void executeForEntity(Entity entity, Runnable task, Runnable retired);
+
+    ScheduledTask runAsync(Runnable task);
+
+    /**
+     * Teleports an entity from the thread owning it, asynchronously where the server supports it.
+     * The future completes on an unspecified thread.
+     */
+    CompletableFuture<Boolean> teleport(Entity entity, Location location);
+
+    /**
+     * Cancels every global and async task of the plugin. Used on disable.
+     */
+    void cancelAll();
+}
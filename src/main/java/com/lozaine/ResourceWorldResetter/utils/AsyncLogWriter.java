@@ -0,0 +1,311 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes log lines to a file from a dedicated thread.
+ * Callers only place the level and message into a fixed-size ring buffer, so nothing is
+ * allocated per message and no file is opened on the caller's thread. If the file can't be
+ * written, the writer keeps retrying and callers drop messages instead of waiting for space.
+ */
+public class AsyncLogWriter {
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final File file;
+    private final Logger logger;
+    private final long flushIntervalNanos;
+    private final long maxWaitNanos;
+
+    // Ring buffer, guarded by lock
+    private final Level[] levels;
+    private final String[] messages;
+    private int head;
+    private int count;
+    private boolean closed;
+    private long droppedCount;
+    private long waitedCount;
+    private boolean failing;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private Thread thread;
+
+    public AsyncLogWriter(File file, Logger logger, int capacity, long flushIntervalMillis, long maxWaitMillis) {
+        this.file = file;
+        this.logger = logger;
+        this.levels = new Level[Math.max(16, capacity)];
+        this.messages = new String[levels.length];
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+    }
+
+    public void start() {
+        lock.lock();
+        try {
+            startThread();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void startThread() {
+        thread = new Thread(this::run, "ResourceWorldResetter-LogWriter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a line for writing. If the buffer is full the caller waits up to the configured
+     * time for space and the message is dropped after that.
+     *
+     * @return false if the message was dropped
+     */
+    public boolean offer(Level level, String message) {
+        lock.lock();
+        try {
+            if (closed) return false;
+            if (thread != null && !thread.isAlive()) {
+                // Died on something unexpected; the queued lines are still there for a new one
+                startThread();
+            }
+
+            if (count == levels.length) {
+                if (failing) {
+                    // Nobody is making room while the file can't be written
+                    droppedCount++;
+                    return false;
+                }
+                waitedCount++;
+                long remaining = maxWaitNanos;
+                while (count == levels.length && remaining > 0 && !closed && !failing) {
+                    try {
+                        remaining = notFull.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                if (count == levels.length || closed) {
+                    droppedCount++;
+                    return false;
+                }
+            }
+
+            int tail = (head + count) % levels.length;
+            levels[tail] = level;
+            messages[tail] = message;
+            count++;
+            if (count == 1) notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getWaitedCount() {
+        lock.lock();
+        try {
+            return waitedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting messages, writes everything still queued and closes the file.
+     */
+    public void close(long timeoutMillis) {
+        Thread writer;
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+            writer = thread;
+        } finally {
+            lock.unlock();
+        }
+        if (writer == null) return;
+
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        Level[] batchLevels = new Level[levels.length];
+        String[] batchMessages = new String[levels.length];
+        StringBuilder line = new StringBuilder(256);
+        CharBuffer chars = CharBuffer.allocate(1024);
+        ByteBuffer bytes = ByteBuffer.allocate(64 * 1024);
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+        try {
+            while (true) {
+                try (FileChannel channel = FileChannel.open(file.toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    write(channel, batchLevels, batchMessages, line, chars, bytes, encoder);
+                    return;
+                } catch (IOException e) {
+                    // The lines of the failed batch are lost, the ones still queued are kept for the retry
+                    bytes.clear();
+                    if (!retryAfter(e)) return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes queued lines until the writer is closed.
+     */
+    private void write(FileChannel channel, Level[] batchLevels, String[] batchMessages, StringBuilder line,
+                       CharBuffer chars, ByteBuffer bytes, CharsetEncoder encoder) throws IOException, InterruptedException {
+        long nextFlush = System.nanoTime() + flushIntervalNanos;
+
+        while (true) {
+            int drained;
+            boolean done;
+
+            lock.lock();
+            try {
+                long wait = nextFlush - System.nanoTime();
+                while (count == 0 && !closed && wait > 0) {
+                    wait = notEmpty.awaitNanos(wait);
+                }
+
+                drained = count;
+                for (int i = 0; i < drained; i++) {
+                    int index = (head + i) % levels.length;
+                    batchLevels[i] = levels[index];
+                    batchMessages[i] = messages[index];
+                    levels[index] = null;
+                    messages[index] = null;
+                }
+                head = (head + drained) % levels.length;
+                count = 0;
+                done = closed;
+                if (drained > 0) notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            for (int i = 0; i < drained; i++) {
+                line.setLength(0);
+                line.append('[').append(batchLevels[i]).append("] ").append(batchMessages[i]).append('\n');
+                batchMessages[i] = null;
+                encode(line, chars, bytes, encoder, channel);
+            }
+
+            if (done || System.nanoTime() - nextFlush >= 0) {
+                flush(bytes, channel);
+                nextFlush = System.nanoTime() + flushIntervalNanos;
+                if (failing) recovered();
+            }
+
+            if (done) break;
+        }
+    }
+
+    /**
+     * Waits before the file is opened again after a failed write.
+     *
+     * @return false if the writer was closed and should give up
+     */
+    private boolean retryAfter(IOException e) throws InterruptedException {
+        lock.lock();
+        try {
+            if (!failing) {
+                logger.severe("Failed to write to log file, retrying every " + TimeUnit.NANOSECONDS.toSeconds(RETRY_NANOS)
+                        + " seconds: " + e.getMessage());
+                failing = true;
+                // Callers waiting for space would wait in vain
+                notFull.signalAll();
+            }
+            if (closed) return false;
+
+            long wait = RETRY_NANOS;
+            while (!closed && wait > 0) {
+                wait = notEmpty.awaitNanos(wait);
+            }
+            // One last attempt for what is still queued on close
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recovered() {
+        lock.lock();
+        try {
+            failing = false;
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Writing to log file again");
+    }
+
+    private void encode(StringBuilder line, CharBuffer chars, ByteBuffer bytes,
+                        CharsetEncoder encoder, FileChannel channel) throws IOException {
+        int offset = 0;
+        while (offset < line.length()) {
+            chars.clear();
+            int end = Math.min(line.length(), offset + chars.capacity());
+            for (int i = offset; i < end; i++) {
+                chars.put(line.charAt(i));
+            }
+            // Keep surrogate pairs together across chunks
+            if (end < line.length() && Character.isHighSurrogate(line.charAt(end - 1))) {
+                chars.position(chars.position() - 1);
+                end--;
+            }
+            offset = end;
+            chars.flip();
+
+            encoder.reset();
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, true);
+                if (result.isOverflow()) {
+                    flush(bytes, channel);
+                    continue;
+                }
+                break;
+            }
+        }
+    }
+
+    private void flush(ByteBuffer bytes, FileChannel channel) throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
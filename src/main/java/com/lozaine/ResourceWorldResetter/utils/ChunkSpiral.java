@@ -0,0 +1,44 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+/**
+ * Walks chunk offsets outward from (0, 0) in square rings: the centre, then the 8 chunks around it, and so on.
+ */
+public class ChunkSpiral {
+    private int x;
+    private int z;
+    private int dx = 0;
+    private int dz = -1;
+    private long index;
+
+    /**
+     * Number of positions needed to cover every chunk within the given radius.
+     */
+    public static long count(int radius) {
+        long side = 2L * radius + 1;
+        return side * side;
+    }
+
+    public int getX() { return x; }
+    public int getZ() { return z; }
+    public long getIndex() { return index; }
+
+    public void advance() {
+        if (x == z || (x < 0 && x == -z) || (x > 0 && x == 1 - z)) {
+            int turn = dx;
+            dx = -dz;
+            dz = turn;
+        }
+        x += dx;
+        z += dz;
+        index++;
+    }
+
+    /**
+     * Moves forward until the given index is reached, used to resume a saved position.
+     */
+    public void skipTo(long target) {
+        while (index < target) {
+            advance();
+        }
+    }
+}
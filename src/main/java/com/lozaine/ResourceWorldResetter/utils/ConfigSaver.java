@@ -0,0 +1,128 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import com.lozaine.ResourceWorldResetter.scheduler.ScheduledTask;
+import com.lozaine.ResourceWorldResetter.scheduler.TaskScheduler;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Batches config changes: each change only marks the config dirty, and once no change has come in for
+ * the quiet period the config is serialized on the main thread, the batch callback runs once, and the
+ * file is written on a background thread. Writes go through a temporary file so a crash never leaves
+ * a half-written config.yml. Must be used from the main thread.
+ */
+public class ConfigSaver {
+    private final JavaPlugin plugin;
+    private final TaskScheduler scheduler;
+    private final File configFile;
+    private final Runnable onBatch;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ResourceWorldResetter-ConfigSaver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long quietTicks = 60;
+    private boolean dirty;
+    private ScheduledTask task;
+
+    /**
+     * @param onBatch run on the main thread once per batch of changes, before the file is written
+     */
+    public ConfigSaver(JavaPlugin plugin, TaskScheduler scheduler, Runnable onBatch) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.configFile = new File(plugin.getDataFolder(), "config.yml");
+        this.onBatch = onBatch;
+    }
+
+    public void setQuietSeconds(int seconds) {
+        this.quietTicks = Math.max(1, seconds) * 20L;
+    }
+
+    /**
+     * Marks the in-memory config as changed and restarts the quiet period.
+     */
+    public void stage() {
+        dirty = true;
+        if (task != null) task.cancel();
+        task = scheduler.runGlobalLater(this::commit, quietTicks);
+    }
+
+    private void commit() {
+        task = null;
+        if (!dirty) return;
+
+        onBatch.run();
+        queueWrite();
+    }
+
+    private void queueWrite() {
+        dirty = false;
+        String yaml = plugin.getConfig().saveToString();
+        writer.execute(() -> write(yaml));
+    }
+
+    /**
+     * Commits any staged changes right away, running the batch callback as the quiet period would have,
+     * and waits for every pending write. Used before a reload, so changes made just before it still
+     * take effect.
+     */
+    public void flush() {
+        cancelPending();
+        if (dirty) onBatch.run();
+        finishWrites();
+    }
+
+    /**
+     * Writes any staged changes without running the batch callback and stops the writer. Used on shutdown.
+     */
+    public void shutdown() {
+        cancelPending();
+        finishWrites();
+        writer.shutdown();
+    }
+
+    private void cancelPending() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void finishWrites() {
+        if (dirty) queueWrite();
+
+        // Writes queued behind each other finish in order; wait for the last one
+        try {
+            writer.submit(() -> { }).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            LogUtil.log(plugin.getLogger(), "Timed out waiting for config.yml to be written", Level.WARNING);
+        }
+    }
+
+    private void write(String yaml) {
+        Path target = configFile.toPath();
+        Path temp = target.resolveSibling(configFile.getName() + ".tmp");
+        try {
+            Files.writeString(temp, yaml, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LogUtil.log(plugin.getLogger(), "Failed to save config.yml: " + e.getMessage(), Level.SEVERE);
+        }
+    }
+}
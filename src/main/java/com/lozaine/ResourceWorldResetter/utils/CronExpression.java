@@ -0,0 +1,147 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * A five-field cron expression: minute, hour, day of month, month and day of week.
+ * Fields accept "*", numbers, ranges ("1-5"), lists ("1,15") and steps ("0-30/10", or "*" followed by "/15").
+ * Day of week runs from 0 or 7 (Sunday) to 6; when both day fields are restricted, either one matching is enough.
+ * The shortcuts @hourly, @daily, @weekly and @monthly are also accepted.
+ */
+public final class CronExpression {
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+
+    private CronExpression(String expression, String[] fields) {
+        this.expression = expression;
+        this.minutes = parseField(fields[0], 0, 59);
+        this.hours = parseField(fields[1], 0, 23);
+        this.daysOfMonth = parseField(fields[2], 1, 31);
+        this.months = parseField(fields[3], 1, 12);
+        this.daysOfWeek = parseField(fields[4], 0, 7);
+        // Sunday can be written as 0 or 7
+        if (daysOfWeek.get(7)) daysOfWeek.set(0);
+        this.dayOfMonthRestricted = !fields[2].startsWith("*");
+        this.dayOfWeekRestricted = !fields[4].startsWith("*");
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression can't be parsed
+     */
+    public static CronExpression parse(String expression) {
+        String trimmed = expression.trim();
+        String expanded = switch (trimmed.toLowerCase()) {
+            case "@hourly" -> "0 * * * *";
+            case "@daily", "@midnight" -> "0 0 * * *";
+            case "@weekly" -> "0 0 * * 0";
+            case "@monthly" -> "0 0 1 * *";
+            default -> trimmed;
+        };
+
+        String[] fields = expanded.split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Expected 5 fields in cron expression '" + expression + "'");
+        }
+        return new CronExpression(trimmed, fields);
+    }
+
+    private static BitSet parseField(String field, int min, int max) {
+        BitSet bits = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max);
+                part = part.substring(0, slash);
+            }
+
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else if (part.contains("-")) {
+                String[] range = part.split("-", 2);
+                from = parseNumber(range[0], min, max);
+                to = parseNumber(range[1], min, max);
+            } else {
+                from = parseNumber(part, min, max);
+                to = slash >= 0 ? max : from;
+            }
+            if (from > to) {
+                throw new IllegalArgumentException("Invalid range '" + part + "' in cron field '" + field + "'");
+            }
+
+            for (int value = from; value <= to; value += step) {
+                bits.set(value);
+            }
+        }
+        return bits;
+    }
+
+    private static int parseNumber(String value, int min, int max) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number < min || number > max) {
+                throw new IllegalArgumentException("Value " + number + " out of range " + min + "-" + max);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + value + "' is not a number");
+        }
+    }
+
+    /**
+     * Returns the first time strictly after the given one that matches the expression, in the same zone.
+     * Matching is done on local time, so a time repeated when clocks go back fires once and a time
+     * skipped when clocks go forward fires right after the gap.
+     */
+    public ZonedDateTime next(ZonedDateTime after) {
+        LocalDateTime local = next(after.toLocalDateTime());
+        ZonedDateTime time = local.atZone(after.getZone());
+        return time.isAfter(after) ? time : time.withLaterOffsetAtOverlap();
+    }
+
+    private LocalDateTime next(LocalDateTime after) {
+        LocalDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+
+        // Skip whole months, days and hours that can't match; bounded so an impossible date like 31 February ends
+        for (int i = 0; i < 100_000; i++) {
+            if (!months.get(time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matchesDay(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!hours.get(time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+        throw new IllegalStateException("Cron expression '" + expression + "' never matches");
+    }
+
+    private boolean matchesDay(LocalDateTime time) {
+        boolean dayOfMonth = daysOfMonth.get(time.getDayOfMonth());
+        boolean dayOfWeek = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+        if (dayOfMonthRestricted && dayOfWeekRestricted) {
+            return dayOfMonth || dayOfWeek;
+        }
+        return dayOfMonth && dayOfWeek;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,106 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoublePredicate;
+
+/**
+ * Paces file operations to a files per second and bytes per second budget shared by every thread that
+ * uses it. Each operation reserves the time its file and bytes cost at the current rate and waits until
+ * that slot comes up, so bursts are smoothed out rather than allowed and then paid for. The rate is
+ * halved whenever the server is busier than the target and recovers gradually once it isn't.
+ */
+public class IoThrottle {
+    private static final long CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    // Load is averaged over a few seconds, so a cut takes a while to show and isn't repeated before then
+    private static final long BACKOFF_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double MIN_FACTOR = 0.05;
+    private static final double RECOVERY_STEP = 0.1;
+    // Keeps an idle throttle from banking unlimited credit for a later burst
+    private static final long MAX_CREDIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final DoublePredicate overloaded;
+    private double filesPerSecond;
+    private double bytesPerSecond;
+    private double targetTickMillis;
+
+    private double factor = 1.0;
+    private long nextFreeNanos;
+    private long lastCheckNanos;
+    private long lastBackoffNanos;
+    private long backoffs;
+
+    /**
+     * @param overloaded tells whether the server is busier than the target tick time passed in,
+     *                   called from the calling thread
+     */
+    public IoThrottle(DoublePredicate overloaded) {
+        this.overloaded = overloaded;
+    }
+
+    /**
+     * @param filesPerSecond   files that may be handled per second, 0 for no limit
+     * @param bytesPerSecond   bytes that may be handled per second, 0 for no limit
+     * @param targetTickMillis main thread time per tick above which the rate backs off, 0 to never back off
+     */
+    public synchronized void configure(double filesPerSecond, double bytesPerSecond, double targetTickMillis) {
+        this.filesPerSecond = Math.max(0, filesPerSecond);
+        this.bytesPerSecond = Math.max(0, bytesPerSecond);
+        this.targetTickMillis = Math.max(0, targetTickMillis);
+        this.factor = 1.0;
+    }
+
+    /**
+     * Waits until one file of the given size may be handled. Returns early, with the thread's
+     * interrupt flag set, if the thread is interrupted.
+     */
+    public void acquire(long bytes) {
+        long waitNanos = reserve(bytes);
+        if (waitNanos <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Current share of the configured rate, between 0.05 and 1.
+     */
+    public synchronized double getFactor() { return factor; }
+
+    /**
+     * How often the rate was cut because the server was busy.
+     */
+    public synchronized long getBackoffs() { return backoffs; }
+
+    private synchronized long reserve(long bytes) {
+        if (filesPerSecond <= 0 && bytesPerSecond <= 0) return 0;
+
+        long now = System.nanoTime();
+        adjust(now);
+
+        double seconds = 0;
+        if (filesPerSecond > 0) seconds = 1 / filesPerSecond;
+        if (bytesPerSecond > 0) seconds = Math.max(seconds, bytes / bytesPerSecond);
+        long costNanos = (long) (seconds / factor * 1_000_000_000L);
+
+        long start = Math.max(nextFreeNanos, now - MAX_CREDIT_NANOS);
+        nextFreeNanos = start + costNanos;
+        return start - now;
+    }
+
+    private void adjust(long now) {
+        if (targetTickMillis <= 0 || now - lastCheckNanos < CHECK_INTERVAL_NANOS) return;
+        lastCheckNanos = now;
+
+        // Back off hard when the server falls behind, recover slowly when it keeps up
+        if (overloaded.test(targetTickMillis)) {
+            if (now - lastBackoffNanos < BACKOFF_INTERVAL_NANOS) return;
+            lastBackoffNanos = now;
+            if (factor > MIN_FACTOR) backoffs++;
+            factor = Math.max(MIN_FACTOR, factor / 2);
+        } else {
+            factor = Math.min(1.0, factor + RECOVERY_STEP);
+        }
+    }
+}
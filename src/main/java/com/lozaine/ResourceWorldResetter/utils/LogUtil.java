@@ -1,29 +1,50 @@
 package com.lozaine.ResourceWorldResetter.utils;
 
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class LogUtil {
-    private static File logFile;
+    private static AsyncLogWriter writer;
 
     public static void init(JavaPlugin plugin) {
         File logDir = new File(plugin.getDataFolder(), "logs");
         if (!logDir.exists()) logDir.mkdirs();
 
-        logFile = new File(logDir, "resource-reset.log");
+        init(new File(logDir, "resource-reset.log"), plugin.getLogger(),
+                plugin.getConfig().getInt("logging.queueCapacity", 4096),
+                plugin.getConfig().getLong("logging.flushIntervalMillis", 1000),
+                plugin.getConfig().getLong("logging.maxWaitMillis", 5));
+    }
+
+    /**
+     * Starts writing to the given file with explicit writer settings, without a plugin.
+     */
+    public static void init(File logFile, Logger logger, int queueCapacity, long flushIntervalMillis, long maxWaitMillis) {
+        writer = new AsyncLogWriter(logFile, logger, queueCapacity, flushIntervalMillis, maxWaitMillis);
+        writer.start();
     }
 
     public static void log(Logger logger, String message, Level level) {
-        try (FileWriter writer = new FileWriter(logFile, true)) {
-            String logEntry = "[" + level + "] " + message + "\n";
-            writer.write(logEntry);
-            logger.log(level, message);
-        } catch (IOException e) {
-            logger.severe("Failed to write to log file: " + e.getMessage());
+        logger.log(level, message);
+        if (writer != null) {
+            writer.offer(level, message);
+        }
+    }
+
+    /**
+     * Writes out everything still queued and closes the log file. Call from onDisable.
+     */
+    public static void shutdown(Logger logger) {
+        if (writer == null) return;
+
+        writer.close(5000);
+        long dropped = writer.getDroppedCount();
+        long waited = writer.getWaitedCount();
+        if (dropped > 0 || waited > 0) {
+            logger.warning("Reset log writer: " + waited + " messages had to wait for queue space, " + dropped + " were dropped");
         }
+        writer = null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Copies a template world folder into place.
+ * Tries a copy-on-write reflink first and falls back to copying files in parallel with channel transfers.
+ */
+public class TemplateCopier {
+    // Files that identify a particular running world and must not be carried over
+    private static final Set<String> SKIPPED_FILES = Set.of("uid.dat", "session.lock");
+
+    private final Logger logger;
+    private final String copyMode;
+    private final int threads;
+
+    public TemplateCopier(Logger logger, String copyMode, int threads) {
+        this.logger = logger;
+        this.copyMode = copyMode == null ? "auto" : copyMode.toLowerCase();
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Copies the template into the target folder, which must not exist yet.
+     *
+     * @return true if the target now holds a complete copy of the template
+     */
+    public boolean copy(Path template, Path target) {
+        if (!Files.isDirectory(template)) {
+            LogUtil.log(logger, "World template not found: " + template, Level.SEVERE);
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        if (!copyMode.equals("copy") && reflink(template, target)) {
+            removeSkippedFiles(target);
+            LogUtil.log(logger, "Reflinked template " + template + " in " + (System.currentTimeMillis() - start) + "ms", Level.INFO);
+            return true;
+        }
+        if (copyMode.equals("reflink")) {
+            LogUtil.log(logger, "Reflink copy of " + template + " failed and copyMode is 'reflink'", Level.SEVERE);
+            return false;
+        }
+
+        try {
+            int files = parallelCopy(template, target);
+            LogUtil.log(logger, "Copied template " + template + " (" + files + " files) in "
+                    + (System.currentTimeMillis() - start) + "ms", Level.INFO);
+            return true;
+        } catch (IOException e) {
+            LogUtil.log(logger, "Failed to copy world template: " + e.getMessage(), Level.SEVERE);
+            WorldTrash.deleteTree(target);
+            return false;
+        }
+    }
+
+    /**
+     * Uses cp --reflink=always, which shares the data blocks on filesystems such as btrfs and XFS.
+     * Hard links are not used: the server rewrites region files in place, which would modify the template too.
+     */
+    private boolean reflink(Path template, Path target) {
+        if (!System.getProperty("os.name", "").toLowerCase().contains("linux")) return false;
+
+        try {
+            Process process = new ProcessBuilder("cp", "-r", "--reflink=always",
+                    template.toAbsolutePath().toString(), target.toAbsolutePath().toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (process.waitFor(10, TimeUnit.MINUTES) && process.exitValue() == 0) {
+                return true;
+            }
+            process.destroyForcibly();
+        } catch (IOException e) {
+            // cp not available
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Remove whatever the failed attempt left behind before falling back
+        if (Files.exists(target)) {
+            WorldTrash.deleteTree(target);
+        }
+        return false;
+    }
+
+    private int parallelCopy(Path template, Path target) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ResourceWorldResetter-TemplateCopy");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> copies = new ArrayList<>();
+        AtomicInteger files = new AtomicInteger();
+
+        try {
+            Files.walkFileTree(template, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(target.resolve(template.relativize(dir)));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!SKIPPED_FILES.contains(file.getFileName().toString())) {
+                        Path destination = target.resolve(template.relativize(file));
+                        copies.add(executor.submit(() -> {
+                            transfer(file, destination, attrs.size());
+                            files.incrementAndGet();
+                            return null;
+                        }));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            for (Future<?> copy : copies) {
+                copy.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while copying template", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return files.get();
+    }
+
+    private static void transfer(Path source, Path destination, long size) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(destination, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            while (position < size) {
+                long transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) break;
+                position += transferred;
+            }
+        }
+    }
+
+    private void removeSkippedFiles(Path target) {
+        for (String name : SKIPPED_FILES) {
+            try {
+                Files.deleteIfExists(target.resolve(name));
+            } catch (IOException e) {
+                LogUtil.log(logger, "Failed to remove " + name + " from copied template: " + e.getMessage(), Level.WARNING);
+            }
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams world folders into .tar.gz archives and extracts them again. The tar stream is cut into chunks
+ * that are gzipped on a small pool and written in order as consecutive gzip members, which tar and gzip
+ * read as one archive. Only a few chunks are in flight at a time, so memory use doesn't depend on the
+ * size of the world, and files are read within the budget of an {@link IoThrottle}. Archives are named
+ * &lt;world&gt;-&lt;yyyyMMdd-HHmmss&gt;.tar.gz and are only given that name once complete.
+ */
+public class WorldArchiver {
+    private static final int CHUNK_SIZE = 1024 * 1024;
+    private static final int BLOCK = 512;
+    private static final String SUFFIX = ".tar.gz";
+    private static final String PARTIAL_SUFFIX = SUFFIX + ".part";
+    private static final Pattern ARCHIVE_NAME = Pattern.compile("(.+)-\\d{8}-\\d{6}" + Pattern.quote(SUFFIX));
+
+    private final Path archiveDir;
+    private final Logger logger;
+    private final IoThrottle throttle;
+    private final ExecutorService pool;
+    private final int maxInFlight;
+    private volatile int level = Deflater.DEFAULT_COMPRESSION;
+    private volatile int keepCount;
+    private volatile long maxAgeMillis;
+
+    public WorldArchiver(Path archiveDir, Logger logger, int threads, IoThrottle throttle) {
+        this.archiveDir = archiveDir;
+        this.logger = logger;
+        this.throttle = throttle;
+        this.maxInFlight = Math.max(1, threads) * 2;
+        this.pool = Executors.newFixedThreadPool(Math.max(1, threads), task -> {
+            Thread thread = new Thread(task, "ResourceWorldResetter-Archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param level     gzip level from 1 (fastest) to 9 (smallest), -1 for the default
+     * @param keepCount archives kept per world, 0 for no limit
+     * @param maxAgeDays archives older than this are deleted, 0 for no limit
+     */
+    public void configure(int level, int keepCount, int maxAgeDays) {
+        this.level = level < 1 || level > 9 ? Deflater.DEFAULT_COMPRESSION : level;
+        this.keepCount = Math.max(0, keepCount);
+        this.maxAgeMillis = Math.max(0, maxAgeDays) * 86_400_000L;
+    }
+
+    public Path getArchiveDir() { return archiveDir; }
+
+    /**
+     * What an archive holds and how long writing it took.
+     */
+    public record Archive(Path file, long files, long bytes, long compressedBytes, long millis) {
+        public String describe() {
+            return String.format("%d files, %d MB compressed to %d MB in %dms (%.1f MB/s)", files, bytes / (1024 * 1024),
+                    compressedBytes / (1024 * 1024), millis, millis > 0 ? bytes / (1024.0 * 1024.0) / (millis / 1000.0) : 0);
+        }
+    }
+
+    /**
+     * Archives a world folder under the given world name, then applies the retention limits to the
+     * archives of every world. Blocks until done; must not be called from the main thread.
+     *
+     * @return the archive, or null if it could not be written completely
+     */
+    public Archive archive(Path folder, String worldName) {
+        long start = System.currentTimeMillis();
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(start));
+        Path target = archiveDir.resolve(worldName + "-" + stamp + SUFFIX);
+        Path partial = archiveDir.resolve(worldName + "-" + stamp + PARTIAL_SUFFIX);
+
+        try {
+            Files.createDirectories(archiveDir);
+            long[] totals;
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                totals = write(folder, out);
+            }
+            if (totals == null) {
+                Files.deleteIfExists(partial);
+                return null;
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+            Archive archive = new Archive(target, totals[0], totals[1], Files.size(target), System.currentTimeMillis() - start);
+            LogUtil.log(logger, "Archived " + worldName + " to " + target.getFileName() + ": " + archive.describe(), Level.INFO);
+            pruneAll();
+            return archive;
+        } catch (IOException e) {
+            LogUtil.log(logger, "Failed to archive " + folder + ": " + e.getMessage(), Level.WARNING);
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // Deleted by the sweep on the next startup
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Lists the archives of a world, newest first.
+     */
+    public List<Path> list(String worldName) {
+        Pattern name = Pattern.compile(Pattern.quote(worldName) + "-\\d{8}-\\d{6}" + Pattern.quote(SUFFIX));
+        List<Path> archives = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(archiveDir)) {
+            for (Path entry : entries) {
+                if (name.matcher(entry.getFileName().toString()).matches()) archives.add(entry);
+            }
+        } catch (IOException e) {
+            return archives;
+        }
+        // The timestamp in the name sorts in time order
+        archives.sort(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed());
+        return archives;
+    }
+
+    /**
+     * Extracts an archive into a folder that must not exist yet. A failed extraction leaves nothing behind.
+     */
+    public boolean extract(Path archive, Path target) {
+        long start = System.currentTimeMillis();
+        long files = 0;
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(archive)), 64 * 1024)) {
+            Path root = Files.createDirectories(target).toAbsolutePath().normalize();
+            byte[] header = new byte[BLOCK];
+            while (true) {
+                readBlock(in, header);
+                if (header[0] == 0) break;
+
+                String name = field(header, 345, 155);
+                name = name.isEmpty() ? field(header, 0, 100) : name + "/" + field(header, 0, 100);
+                long size = Long.parseLong(field(header, 124, 12).trim(), 8);
+                Path path = root.resolve(name).normalize();
+                if (!path.startsWith(root)) throw new IOException("entry outside the archive root: " + name);
+
+                if (header[156] == '5') {
+                    Files.createDirectories(path);
+                    continue;
+                }
+                Files.createDirectories(path.getParent());
+                try (OutputStream out = Files.newOutputStream(path)) {
+                    copy(in, out, size);
+                }
+                in.skipNBytes(padding(size));
+                files++;
+            }
+            LogUtil.log(logger, "Extracted " + files + " files from " + archive.getFileName() + " in "
+                    + (System.currentTimeMillis() - start) + "ms", Level.INFO);
+            return true;
+        } catch (IOException | NumberFormatException e) {
+            LogUtil.log(logger, "Failed to extract " + archive.getFileName() + ": " + e.getMessage(), Level.WARNING);
+            WorldTrash.deleteTree(target);
+            return false;
+        }
+    }
+
+    /**
+     * Deletes archives a crash left incomplete and applies the retention limits to the archives of every
+     * world, also those of worlds that are no longer archived. Call on startup before anything is archived.
+     */
+    public void sweep() {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(archiveDir, "*" + PARTIAL_SUFFIX)) {
+            for (Path entry : entries) {
+                Files.deleteIfExists(entry);
+                LogUtil.log(logger, "Deleted incomplete archive " + entry.getFileName(), Level.INFO);
+            }
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            LogUtil.log(logger, "Failed to delete incomplete archives: " + e.getMessage(), Level.WARNING);
+        }
+        pruneAll();
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void pruneAll() {
+        Set<String> worlds = new TreeSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(archiveDir, "*" + SUFFIX)) {
+            for (Path entry : entries) {
+                Matcher name = ARCHIVE_NAME.matcher(entry.getFileName().toString());
+                if (name.matches()) worlds.add(name.group(1));
+            }
+        } catch (IOException e) {
+            return;
+        }
+        worlds.forEach(this::prune);
+    }
+
+    /**
+     * Deletes the archives of a world beyond the configured count or age.
+     */
+    private void prune(String worldName) {
+        List<Path> archives = list(worldName);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < archives.size(); i++) {
+            Path archive = archives.get(i);
+            try {
+                boolean tooMany = keepCount > 0 && i >= keepCount;
+                boolean tooOld = maxAgeMillis > 0 && now - Files.getLastModifiedTime(archive).toMillis() > maxAgeMillis;
+                if (!tooMany && !tooOld) continue;
+                Files.deleteIfExists(archive);
+                LogUtil.log(logger, "Deleted old archive " + archive.getFileName(), Level.INFO);
+            } catch (IOException e) {
+                LogUtil.log(logger, "Failed to delete old archive " + archive.getFileName() + ": " + e.getMessage(), Level.WARNING);
+            }
+        }
+    }
+
+    /**
+     * Writes the folder as a tar stream of gzipped chunks.
+     *
+     * @return the number of files and bytes archived, or null if the thread was interrupted
+     */
+    private long[] write(Path folder, OutputStream out) throws IOException {
+        List<Path> entries;
+        try (Stream<Path> walk = Files.walk(folder)) {
+            entries = walk.filter(path -> !path.equals(folder)).sorted().toList();
+        }
+
+        ChunkWriter chunks = new ChunkWriter(out);
+        long files = 0;
+        long bytes = 0;
+        byte[] buffer = new byte[64 * 1024];
+        for (Path path : entries) {
+            if (Thread.currentThread().isInterrupted()) return null;
+            String name = folder.relativize(path).toString().replace('\\', '/');
+            // The lock belongs to the server that had the world open
+            if (name.equals("session.lock")) continue;
+
+            long modified = Files.getLastModifiedTime(path, LinkOption.NOFOLLOW_LINKS).toMillis() / 1000;
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                chunks.write(header(name + "/", 0, modified, '5'));
+                continue;
+            }
+            if (!Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) continue;
+
+            long size;
+            try {
+                size = Files.size(path);
+            } catch (NoSuchFileException e) {
+                continue;
+            }
+            throttle.acquire(size);
+            chunks.write(header(name, size, modified, '0'));
+            long written = 0;
+            try (InputStream in = Files.newInputStream(path)) {
+                int read;
+                while (written < size && (read = in.read(buffer, 0, (int) Math.min(buffer.length, size - written))) > 0) {
+                    chunks.write(buffer, 0, read);
+                    written += read;
+                }
+            }
+            // The header promised the size the file had when it was listed
+            if (written < size) chunks.write(new byte[(int) (size - written)]);
+            chunks.write(new byte[padding(size)]);
+            files++;
+            bytes += size;
+        }
+        // Two empty blocks end a tar archive
+        chunks.write(new byte[BLOCK * 2]);
+        chunks.finish();
+        return new long[]{files, bytes};
+    }
+
+    private static byte[] header(String name, long size, long modified, char type) throws IOException {
+        byte[] header = new byte[BLOCK];
+        byte[] path = name.getBytes(StandardCharsets.UTF_8);
+        if (path.length > 100) {
+            // ustar splits long paths at a slash into a prefix and a name
+            int split = name.lastIndexOf('/', name.length() - 2);
+            byte[] prefix = split > 0 ? name.substring(0, split).getBytes(StandardCharsets.UTF_8) : path;
+            byte[] rest = split > 0 ? name.substring(split + 1).getBytes(StandardCharsets.UTF_8) : path;
+            if (split <= 0 || prefix.length > 155 || rest.length > 100) throw new IOException("path too long for tar: " + name);
+            System.arraycopy(prefix, 0, header, 345, prefix.length);
+            path = rest;
+        }
+        System.arraycopy(path, 0, header, 0, path.length);
+        octal(header, 100, 8, type == '5' ? 0755 : 0644);
+        octal(header, 108, 8, 0);
+        octal(header, 116, 8, 0);
+        octal(header, 124, 12, size);
+        octal(header, 136, 12, modified);
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        header[156] = (byte) type;
+        System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 8);
+
+        long checksum = 0;
+        for (byte b : header) checksum += b & 0xff;
+        octal(header, 148, 7, checksum);
+        header[154] = 0;
+        return header;
+    }
+
+    private static void octal(byte[] header, int offset, int length, long value) {
+        String digits = String.format("%0" + (length - 1) + "o", value);
+        System.arraycopy(digits.getBytes(StandardCharsets.US_ASCII), 0, header, offset, length - 1);
+    }
+
+    private static String field(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) end++;
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static int padding(long size) {
+        return (int) ((BLOCK - size % BLOCK) % BLOCK);
+    }
+
+    private static void readBlock(InputStream in, byte[] block) throws IOException {
+        if (in.readNBytes(block, 0, BLOCK) < BLOCK) throw new EOFException("archive ends early");
+    }
+
+    private static void copy(InputStream in, OutputStream out, long size) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long left = size;
+        while (left > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, left));
+            if (read < 0) throw new EOFException("archive ends early");
+            out.write(buffer, 0, read);
+            left -= read;
+        }
+    }
+
+    /**
+     * Collects the tar stream into chunks, gzips them on the pool and writes them in order, waiting
+     * for the oldest chunk whenever too many are in flight.
+     */
+    private class ChunkWriter {
+        private final OutputStream out;
+        private final Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        private byte[] chunk = new byte[CHUNK_SIZE];
+        private int used;
+
+        ChunkWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void write(byte[] data) throws IOException {
+            write(data, 0, data.length);
+        }
+
+        void write(byte[] data, int offset, int length) throws IOException {
+            while (length > 0) {
+                int copied = Math.min(length, chunk.length - used);
+                System.arraycopy(data, offset, chunk, used, copied);
+                used += copied;
+                offset += copied;
+                length -= copied;
+                if (used == chunk.length) submit();
+            }
+        }
+
+        void finish() throws IOException {
+            if (used > 0) submit();
+            while (!inFlight.isEmpty()) writeOldest();
+        }
+
+        private void submit() throws IOException {
+            if (inFlight.size() >= maxInFlight) writeOldest();
+            byte[] data = chunk;
+            int length = used;
+            int compression = level;
+            inFlight.add(pool.submit(() -> compress(data, length, compression)));
+            chunk = new byte[CHUNK_SIZE];
+            used = 0;
+        }
+
+        private void writeOldest() throws IOException {
+            Future<byte[]> oldest = inFlight.poll();
+            try {
+                out.write(oldest.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted");
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+    }
+
+    private static byte[] compress(byte[] data, int length, int level) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 64 * 1024) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(data, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+}
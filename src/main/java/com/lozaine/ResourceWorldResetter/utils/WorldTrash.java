@@ -0,0 +1,279 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves unloaded world folders into a trash directory next to the worlds and deletes them in the background.
+ * The trash directory lives in the world container so the move is a rename on the same filesystem.
+ * Deletions run on a small dedicated pool and are paced by an {@link IoThrottle}, so they don't starve
+ * the main world's chunk saving of disk bandwidth. With a {@link WorldArchiver} set, each folder is archived
+ * before it is deleted, and kept in the trash until that succeeds.
+ */
+public class WorldTrash {
+    public static final String TRASH_FOLDER = ".rwr-trash";
+    // Marks a trashed folder that has been archived, so only its deletion is left
+    private static final String ARCHIVED_SUFFIX = ".archived";
+
+    private final Path trashDir;
+    private final Logger logger;
+    private final ForkJoinPool pool;
+    private final IoThrottle throttle;
+    private final AtomicBoolean purging = new AtomicBoolean();
+    private final AtomicBoolean purgeAgain = new AtomicBoolean();
+    private volatile LongConsumer deletedListener;
+    private volatile WorldArchiver archiver;
+
+    public WorldTrash(File worldContainer, Logger logger, int threads, IoThrottle throttle) {
+        this.trashDir = worldContainer.toPath().resolve(TRASH_FOLDER);
+        this.logger = logger;
+        this.throttle = throttle;
+        this.pool = new ForkJoinPool(Math.max(1, threads), pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ResourceWorldResetter-Trash-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Sets a listener told how many bytes each purged folder held. It is called on a trash thread.
+     */
+    public void setDeletedListener(LongConsumer deletedListener) {
+        this.deletedListener = deletedListener;
+    }
+
+    public void setArchiver(WorldArchiver archiver) {
+        this.archiver = archiver;
+    }
+
+    /**
+     * Atomically renames the folder into the trash directory.
+     *
+     * @return the new location, or null if the folder could not be moved atomically
+     */
+    public Path moveToTrash(File worldFolder) {
+        Path source = worldFolder.toPath();
+        Path target = trashDir.resolve(worldFolder.getName() + "-" + System.currentTimeMillis());
+
+        try {
+            Files.createDirectories(trashDir);
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            LogUtil.log(logger, "Moved " + source + " to trash", Level.INFO);
+            return target;
+        } catch (AtomicMoveNotSupportedException e) {
+            LogUtil.log(logger, "Cannot move " + source + " to trash atomically (different filesystem?)", Level.WARNING);
+        } catch (IOException e) {
+            LogUtil.log(logger, "Failed to move " + source + " to trash: " + e.getMessage(), Level.WARNING);
+        }
+        return null;
+    }
+
+    public boolean hasLeftovers() {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(trashDir)) {
+            return entries.iterator().hasNext();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes everything in the trash directory in the background.
+     * A purge requested while one is running is picked up once the current one finishes.
+     */
+    public void purgeAsync() {
+        purgeAgain.set(true);
+        if (!purging.compareAndSet(false, true)) return;
+
+        pool.execute(() -> {
+            try {
+                while (purgeAgain.getAndSet(false)) {
+                    purge();
+                }
+            } finally {
+                purging.set(false);
+            }
+            // A request may have slipped in between the last check and releasing the flag
+            if (purgeAgain.get()) purgeAsync();
+        });
+    }
+
+    /**
+     * What a deletion removed and how long it took.
+     */
+    public record Deletion(long files, long bytes, long millis) {
+        public double megabytesPerSecond() {
+            return millis > 0 ? bytes / (1024.0 * 1024.0) / (millis / 1000.0) : 0;
+        }
+
+        public double filesPerSecond() {
+            return millis > 0 ? files / (millis / 1000.0) : 0;
+        }
+
+        public String describe() {
+            return String.format("%d files, %d MB in %dms (%.1f MB/s, %.0f files/s)",
+                    files, bytes / (1024 * 1024), millis, megabytesPerSecond(), filesPerSecond());
+        }
+    }
+
+    /**
+     * Deletes a tree on the trash pool within the throttle's budget, blocking until it is done.
+     * Must not be called from the main thread.
+     */
+    public Deletion delete(Path root) {
+        long start = System.currentTimeMillis();
+        DeleteTask task = new DeleteTask(root, throttle);
+        try {
+            pool.invoke(task);
+        } catch (CancellationException e) {
+            // The pool was shut down, whatever is left is picked up again on the next start
+        }
+        return new Deletion(task.files.get(), task.bytes.get(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Deletes a tree on the calling thread as fast as possible, with subdirectories handled in the common pool.
+     * Only meant for small trees such as a partial template copy.
+     *
+     * @return the number of bytes deleted
+     */
+    public static long deleteTree(Path root) {
+        DeleteTask task = new DeleteTask(root, null);
+        task.invoke();
+        return task.bytes.get();
+    }
+
+    public void shutdown() {
+        // Anything still in the trash is swept on the next startup
+        pool.shutdownNow();
+    }
+
+    private void purge() {
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(trashDir)) {
+            stream.forEach(entries::add);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            LogUtil.log(logger, "Failed to list trash directory: " + e.getMessage(), Level.WARNING);
+            return;
+        }
+
+        for (Path entry : entries) {
+            entry = archive(entry);
+            if (entry == null) continue;
+
+            // Already running on the pool, so the task is run here rather than submitted
+            long start = System.currentTimeMillis();
+            DeleteTask task = new DeleteTask(entry, throttle);
+            task.invoke();
+            Deletion deletion = new Deletion(task.files.get(), task.bytes.get(), System.currentTimeMillis() - start);
+
+            if (Files.exists(entry, LinkOption.NOFOLLOW_LINKS)) {
+                LogUtil.log(logger, "Could not fully delete " + entry + ", will retry on next startup", Level.WARNING);
+            } else {
+                LogUtil.log(logger, "Deleted " + entry.getFileName() + " from trash: " + deletion.describe(), Level.INFO);
+            }
+            LongConsumer listener = deletedListener;
+            if (listener != null) listener.accept(deletion.bytes());
+            if (Thread.currentThread().isInterrupted()) return;
+        }
+    }
+
+    /**
+     * Archives a trashed world folder if an archiver is set and it hasn't been archived yet.
+     *
+     * @return the folder to delete, or null if it has to stay in the trash
+     */
+    private Path archive(Path entry) {
+        WorldArchiver archiver = this.archiver;
+        String name = entry.getFileName().toString();
+        if (archiver == null || name.endsWith(ARCHIVED_SUFFIX) || !Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) return entry;
+
+        // Trashed folders are named <world>-<millis>
+        if (archiver.archive(entry, name.replaceFirst("-\\d+$", "")) == null) {
+            if (!Thread.currentThread().isInterrupted()) {
+                LogUtil.log(logger, "Keeping " + name + " in the trash until it can be archived, will retry with the next purge", Level.WARNING);
+            }
+            return null;
+        }
+        try {
+            return Files.move(entry, entry.resolveSibling(name + ARCHIVED_SUFFIX));
+        } catch (IOException e) {
+            return entry;
+        }
+    }
+
+    /**
+     * Deletes a tree, forking one subtask per subdirectory so large region folders are removed in parallel.
+     * With a throttle, every file waits for its share of the budget before it is deleted; an interrupted
+     * thread stops deleting.
+     */
+    private static class DeleteTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path path;
+        private final IoThrottle throttle;
+        private final AtomicLong files;
+        private final AtomicLong bytes;
+
+        DeleteTask(Path root, IoThrottle throttle) {
+            this(root, throttle, new AtomicLong(), new AtomicLong());
+        }
+
+        private DeleteTask(Path path, IoThrottle throttle, AtomicLong files, AtomicLong bytes) {
+            this.path = path;
+            this.throttle = throttle;
+            this.files = files;
+            this.bytes = bytes;
+        }
+
+        @Override
+        protected void compute() {
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                List<DeleteTask> subtasks = new ArrayList<>();
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(path)) {
+                    for (Path entry : entries) {
+                        if (Thread.currentThread().isInterrupted()) return;
+                        if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                            subtasks.add(new DeleteTask(entry, throttle, files, bytes));
+                        } else {
+                            deleteFile(entry);
+                        }
+                    }
+                } catch (IOException ignored) {
+                    // Leave it for the next sweep
+                }
+                invokeAll(subtasks);
+            }
+            if (Thread.currentThread().isInterrupted()) return;
+            deleteFile(path);
+        }
+
+        private void deleteFile(Path file) {
+            try {
+                long size = Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS) ? Files.size(file) : 0;
+                if (throttle != null) {
+                    throttle.acquire(size);
+                    if (Thread.currentThread().isInterrupted()) return;
+                }
+                Files.deleteIfExists(file);
+                files.incrementAndGet();
+                bytes.addAndGet(size);
+            } catch (IOException ignored) {
+                // Leave it for the next sweep
+            }
+        }
+    }
+}
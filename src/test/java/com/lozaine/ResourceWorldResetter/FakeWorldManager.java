@@ -0,0 +1,65 @@
+package com.lozaine.ResourceWorldResetter;
+
+import com.onarandombox.MultiverseCore.api.MVWorldManager;
+import org.bukkit.World;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+
+/**
+ * Stands in for Multiverse-Core's world manager. Adding a world writes a region file to its folder and
+ * loads it on the test server; the rest of the interface does nothing.
+ */
+final class FakeWorldManager {
+    private FakeWorldManager() {
+    }
+
+    static MVWorldManager create(TestServer server) {
+        return (MVWorldManager) Proxy.newProxyInstance(MVWorldManager.class.getClassLoader(),
+                new Class<?>[]{MVWorldManager.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "addWorld" -> addWorld(server, (String) args[0]);
+                    case "loadWorld" -> loadWorld(server, (String) args[0]);
+                    case "unloadWorld" -> {
+                        World world = server.getWorld((String) args[0]);
+                        yield world == null || server.unloadWorld(world, false);
+                    }
+                    case "isMVWorld" -> args[0] instanceof String name && server.getWorld(name) != null;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "FakeWorldManager";
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    private static boolean addWorld(TestServer server, String name) {
+        if (server.getWorld(name) != null) return false;
+        File regions = new File(server.getWorldContainer(), name + "/region");
+        try {
+            Files.createDirectories(regions.toPath());
+            Files.write(new File(regions, "r.0.0.mca").toPath(), new byte[8192]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.createWorld(name);
+        return true;
+    }
+
+    private static boolean loadWorld(TestServer server, String name) {
+        if (server.getWorld(name) != null) return true;
+        if (!new File(server.getWorldContainer(), name).isDirectory()) return false;
+        server.createWorld(name);
+        return true;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0f;
+        return null;
+    }
+}
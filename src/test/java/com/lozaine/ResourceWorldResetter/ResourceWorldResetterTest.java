@@ -0,0 +1,232 @@
+package com.lozaine.ResourceWorldResetter;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.lozaine.ResourceWorldResetter.gui.AdminGUI;
+import com.lozaine.ResourceWorldResetter.monitor.TaskBudget;
+import com.lozaine.ResourceWorldResetter.reset.ManagedWorld;
+import com.lozaine.ResourceWorldResetter.reset.ResetPipeline;
+import org.bukkit.World;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs resets, evacuations and menu clicks on a headless MockBukkit server. A test fails when a task the
+ * plugin runs on the main thread takes longer than the budget set with -Drwr.tickBudgetMillis (50ms by
+ * default), or when a whole server tick takes more than twice that once the first few ticks have warmed up.
+ */
+class ResourceWorldResetterTest {
+    private static final double TICK_BUDGET_MILLIS = Double.parseDouble(System.getProperty("rwr.tickBudgetMillis", "50"));
+    // Wall time also counts class loading, cold code and stalls of a busy machine, which the budget doesn't
+    private static final int WARMUP_TICKS = 10;
+    private static final double TICK_MARGIN = 2.0;
+    private static final int MAX_TICKS = 2000;
+
+    @TempDir
+    Path worldContainer;
+
+    private TestServer server;
+    private TestWorld lobby;
+    private TestPlugin plugin;
+    private int timedTicks;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock(new TestServer(worldContainer.toFile()));
+        lobby = server.createWorld("world");
+        // Satisfies the plugin's dependency; the world manager itself is replaced by TestPlugin
+        MockBukkit.createMockPlugin("Multiverse-Core");
+        // plugin.yml names the real main class, which MockBukkit.load() insists on
+        plugin = MockBukkit.loadWith(TestPlugin.class, "plugin.yml");
+
+        // Reset without a countdown and time every task the plugin runs on the main thread
+        plugin.getConfig().set("resetWarningTime", 0);
+        plugin.getConfig().set("resetQueue.delayBetweenSeconds", 0);
+        plugin.getConfig().set("taskBudget.enabled", true);
+        plugin.getConfig().set("taskBudget.maxMillis", TICK_BUDGET_MILLIS);
+        plugin.saveConfig();
+        plugin.loadConfig();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void resetReplacesWorldAndMovesPlayersOut() throws IOException {
+        ManagedWorld managed = plugin.getManagedWorld(plugin.getWorldName());
+        World world = server.getWorld(managed.getName());
+        assertNotNull(world);
+        File marker = new File(worldContainer.toFile(), managed.getName() + "/marker");
+        Files.writeString(marker.toPath(), "old world");
+        List<PlayerMock> players = addPlayers(world, 25);
+
+        plugin.resetResourceWorld(managed);
+        assertTrue(managed.isBusy());
+        tickUntil(() -> !managed.isBusy());
+
+        World recreated = server.getWorld(managed.getName());
+        assertNotNull(recreated);
+        assertNotSame(world, recreated);
+        assertFalse(marker.exists());
+        assertEquals(players.size(), managed.getTimings().getPlayersMoved());
+        for (PlayerMock player : players) {
+            assertEquals(lobby, player.getWorld());
+        }
+        assertTasksWithinBudget();
+    }
+
+    @Test
+    void evacuationSpreadsPlayersOverSafePoints() {
+        plugin.getConfig().set("evacuation.safePoints", List.of("world,100,70,100", "world,-100,70,-100"));
+        plugin.getConfig().set("evacuation.playersPerTick", 5);
+        World world = server.getWorld(plugin.getWorldName());
+        List<PlayerMock> players = addPlayers(world, 40);
+
+        AtomicInteger moved = new AtomicInteger(-1);
+        timed(() -> plugin.evacuatePlayers(world, moved::set));
+        tickUntil(() -> moved.get() >= 0);
+
+        assertEquals(players.size(), moved.get());
+        int east = 0;
+        for (PlayerMock player : players) {
+            assertEquals(lobby, player.getWorld());
+            if (player.getLocation().getX() > 0) east++;
+        }
+        assertEquals(players.size() / 2, east);
+        assertTrue(lobby.getChunkTickets().isEmpty(), "chunk tickets left behind: " + lobby.getChunkTickets());
+        assertTasksWithinBudget();
+    }
+
+    @Test
+    void cancelledResetStopsEvacuation() {
+        plugin.getConfig().set("evacuation.safePoints", List.of("world,100,70,100"));
+        plugin.getConfig().set("evacuation.playersPerTick", 1);
+        ManagedWorld managed = plugin.getManagedWorld(plugin.getWorldName());
+        World world = server.getWorld(managed.getName());
+        List<PlayerMock> players = addPlayers(world, 20);
+
+        plugin.resetResourceWorld(managed);
+        // One tick loads the safe point, the next two move a player each
+        for (int i = 0; i < 3; i++) {
+            tick();
+        }
+        assertEquals(ResetPipeline.Stage.EVACUATE, managed.getPipeline().getStage());
+        assertFalse(lobby.getChunkTickets().isEmpty());
+
+        assertTrue(managed.getPipeline().cancel());
+        assertFalse(managed.isBusy());
+        for (int i = 0; i < 20; i++) {
+            tick();
+        }
+        assertEquals(18, players.stream().filter(player -> world.equals(player.getWorld())).count());
+        assertTrue(lobby.getChunkTickets().isEmpty(), "chunk tickets left behind: " + lobby.getChunkTickets());
+        assertSame(world, server.getWorld(managed.getName()));
+    }
+
+    @Test
+    void menuClicksStayWithinBudget() {
+        PlayerMock admin = server.addPlayer();
+        admin.setOp(true);
+        AdminGUI gui = plugin.getAdminGUI();
+
+        // Each submenu of the main menu, twice so the second round runs warm
+        for (int round = 0; round < 2; round++) {
+            for (int slot : new int[]{10, 12, 14, 16, 18}) {
+                timed(() -> gui.openMainMenu(admin));
+                click(admin, slot);
+                assertNotEquals(AdminGUI.GuiType.MAIN_MENU, gui.getActiveGuiType(admin.getUniqueId()), "slot " + slot);
+                tick();
+            }
+        }
+
+        // Force reset, followed through to the end
+        ManagedWorld managed = plugin.getManagedWorld(plugin.getWorldName());
+        timed(() -> gui.openMainMenu(admin));
+        click(admin, 20);
+        assertTrue(managed.isBusy());
+        tickUntil(() -> !managed.isBusy());
+        assertNotNull(server.getWorld(managed.getName()));
+        assertTasksWithinBudget();
+    }
+
+    private List<PlayerMock> addPlayers(World world, int count) {
+        List<PlayerMock> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PlayerMock player = server.addPlayer();
+            player.teleport(world.getSpawnLocation());
+            players.add(player);
+        }
+        return players;
+    }
+
+    private void click(PlayerMock player, int slot) {
+        InventoryClickEvent event = new InventoryClickEvent(player.getOpenInventory(), InventoryType.SlotType.CONTAINER,
+                slot, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        timed(() -> server.getPluginManager().callEvent(event));
+        assertTrue(event.isCancelled(), "click on slot " + slot + " wasn't handled by the menu");
+    }
+
+    /**
+     * Runs server ticks until the condition holds. Async tasks run on their own threads, so each tick is
+     * followed by a short pause to let them make progress.
+     */
+    private void tickUntil(BooleanSupplier condition) {
+        for (int i = 0; i < MAX_TICKS; i++) {
+            if (condition.getAsBoolean()) return;
+            tick();
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrupted");
+            }
+        }
+        fail("condition not met after " + MAX_TICKS + " ticks");
+    }
+
+    private void tick() {
+        timed(() -> server.getScheduler().performOneTick());
+    }
+
+    private void timed(Runnable tick) {
+        long start = System.nanoTime();
+        tick.run();
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        if (++timedTicks <= WARMUP_TICKS) return;
+        assertTrue(millis <= TICK_BUDGET_MILLIS * TICK_MARGIN, String.format("tick took %.1fms, over %.0f times the %.1fms budget",
+                millis, TICK_MARGIN, TICK_BUDGET_MILLIS));
+    }
+
+    private void assertTasksWithinBudget() {
+        List<TaskBudget.Snapshot> usage = plugin.getTaskBudget().getUsage();
+        assertFalse(usage.isEmpty(), "no tasks were measured");
+        TaskBudget.Snapshot slowest = usage.get(0);
+        assertTrue(slowest.maxNanos() <= TICK_BUDGET_MILLIS * 1_000_000, slowest.describe());
+    }
+}
@@ -0,0 +1,14 @@
+package com.lozaine.ResourceWorldResetter;
+
+import com.onarandombox.MultiverseCore.api.MVWorldManager;
+
+/**
+ * The plugin as MockBukkit loads it, with the stand-in world manager in place of Multiverse-Core's.
+ */
+public class TestPlugin extends ResourceWorldResetter {
+
+    @Override
+    protected MVWorldManager findWorldManager() {
+        return FakeWorldManager.create((TestServer) getServer());
+    }
+}
@@ -0,0 +1,76 @@
+package com.lozaine.ResourceWorldResetter;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import org.bukkit.World;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A MockBukkit server whose worlds can be unloaded again and that keeps them in a real world container,
+ * so the plugin can delete and recreate world folders as it does on a server.
+ */
+class TestServer extends ServerMock {
+    private final File worldContainer;
+    private final Map<String, World> worlds = new LinkedHashMap<>();
+
+    TestServer(File worldContainer) {
+        this.worldContainer = worldContainer;
+    }
+
+    /**
+     * Adds a loaded world with a folder in the world container.
+     */
+    TestWorld createWorld(String name) {
+        new File(worldContainer, name).mkdirs();
+        TestWorld world = new TestWorld(name);
+        addWorld(world);
+        return world;
+    }
+
+    @Override
+    public void addWorld(WorldMock world) {
+        worlds.put(world.getName(), world);
+    }
+
+    @Override
+    public World getWorld(String name) {
+        return worlds.get(name);
+    }
+
+    @Override
+    public World getWorld(UUID uid) {
+        for (World world : worlds.values()) {
+            if (world.getUID().equals(uid)) return world;
+        }
+        return null;
+    }
+
+    @Override
+    public List<World> getWorlds() {
+        return new ArrayList<>(worlds.values());
+    }
+
+    @Override
+    public boolean unloadWorld(String name, boolean save) {
+        World world = worlds.get(name);
+        return world != null && unloadWorld(world, save);
+    }
+
+    @Override
+    public boolean unloadWorld(World world, boolean save) {
+        // The server keeps its default world, and worlds with players in them, loaded
+        if (getWorlds().indexOf(world) == 0 || !world.getPlayers().isEmpty()) return false;
+        return worlds.remove(world.getName(), world);
+    }
+
+    @Override
+    public File getWorldContainer() {
+        return worldContainer;
+    }
+}
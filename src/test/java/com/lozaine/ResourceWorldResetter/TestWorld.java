@@ -0,0 +1,36 @@
+package com.lozaine.ResourceWorldResetter;
+
+import be.seeseemelk.mockbukkit.WorldMock;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A MockBukkit world that keeps track of the plugin chunk tickets taken on it.
+ */
+class TestWorld extends WorldMock {
+    private final Set<Long> chunkTickets = new HashSet<>();
+
+    TestWorld(String name) {
+        setName(name);
+    }
+
+    Set<Long> getChunkTickets() {
+        return chunkTickets;
+    }
+
+    @Override
+    public boolean addPluginChunkTicket(int x, int z, Plugin plugin) {
+        return chunkTickets.add(key(x, z));
+    }
+
+    @Override
+    public boolean removePluginChunkTicket(int x, int z, Plugin plugin) {
+        return chunkTickets.remove(key(x, z));
+    }
+
+    private static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+}
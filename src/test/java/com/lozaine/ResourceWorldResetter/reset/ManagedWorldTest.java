@@ -0,0 +1,75 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ManagedWorldTest {
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    private static ZonedDateTime at(int year, int month, int day, int hour) {
+        return ZonedDateTime.of(year, month, day, hour, 0, 0, 0, BERLIN);
+    }
+
+    private static ManagedWorld world(String resetType, int restartTime, int resetDay) {
+        ManagedWorld world = new ManagedWorld("resources");
+        world.setResetType(resetType);
+        world.setRestartTime(restartTime);
+        world.setResetDay(resetDay);
+        return world;
+    }
+
+    @Test
+    void dailyResetsAtRestartTime() {
+        ManagedWorld world = world("daily", 3, 1);
+        assertEquals(at(2026, 10, 14, 3), world.computeNextReset(at(2026, 10, 14, 2)));
+        assertEquals(at(2026, 10, 15, 3), world.computeNextReset(at(2026, 10, 14, 3)));
+        assertEquals(at(2026, 10, 15, 3), world.computeNextReset(at(2026, 10, 14, 4)));
+    }
+
+    @Test
+    void weeklyResetsOnResetDay() {
+        // Monday; 14 October 2026 is a Wednesday
+        ManagedWorld world = world("weekly", 3, 1);
+        assertEquals(at(2026, 10, 19, 3), world.computeNextReset(at(2026, 10, 14, 12)));
+        assertEquals(at(2026, 10, 26, 3), world.computeNextReset(at(2026, 10, 19, 3)));
+    }
+
+    @Test
+    void monthlyClampsToShortMonths() {
+        ManagedWorld world = world("monthly", 3, 31);
+        assertEquals(at(2026, 2, 28, 3), world.computeNextReset(at(2026, 2, 10, 0)));
+        assertEquals(at(2026, 3, 31, 3), world.computeNextReset(at(2026, 2, 28, 3)));
+        assertEquals(at(2026, 4, 30, 3), world.computeNextReset(at(2026, 3, 31, 4)));
+        assertEquals(at(2028, 2, 29, 3), world.computeNextReset(at(2028, 2, 1, 0)));
+    }
+
+    @Test
+    void monthlyMovesToNextMonthOnceDayHasPassed() {
+        ManagedWorld world = world("monthly", 3, 15);
+        assertEquals(at(2026, 11, 15, 3), world.computeNextReset(at(2026, 10, 15, 3)));
+        assertEquals(at(2027, 1, 15, 3), world.computeNextReset(at(2026, 12, 20, 0)));
+    }
+
+    @Test
+    void restartTimeInSpringForwardGapRunsOnce() {
+        // Clocks go from 02:00 to 03:00 on 29 March 2026
+        ManagedWorld world = world("daily", 2, 1);
+        ZonedDateTime first = world.computeNextReset(at(2026, 3, 28, 12));
+        assertEquals(at(2026, 3, 29, 3), first);
+        assertEquals(at(2026, 3, 30, 2), world.computeNextReset(first));
+    }
+
+    @Test
+    void restartTimeInFallBackOverlapRunsOnce() {
+        // Clocks go from 03:00 back to 02:00 on 25 October 2026
+        ManagedWorld world = world("daily", 2, 1);
+        ZonedDateTime first = world.computeNextReset(at(2026, 10, 24, 12));
+        assertEquals(ZonedDateTime.parse("2026-10-25T02:00+02:00[Europe/Berlin]"), first);
+        assertEquals(at(2026, 10, 26, 2), world.computeNextReset(first));
+        assertEquals(at(2026, 10, 26, 2), world.computeNextReset(ZonedDateTime.parse("2026-10-25T02:00+01:00[Europe/Berlin]")));
+    }
+}
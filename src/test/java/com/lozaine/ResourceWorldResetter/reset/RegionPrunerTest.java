@@ -0,0 +1,101 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.utils.IoThrottle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegionPrunerTest {
+    private static final Logger LOGGER = Logger.getLogger(RegionPrunerTest.class.getName());
+
+    @TempDir
+    Path world;
+
+    private Path file(String path) throws IOException {
+        Path file = world.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[100]);
+        return file;
+    }
+
+    @Test
+    void keepsListedRegionsAndAreas() throws IOException {
+        // Region 0,0 by coordinates, region -1,-1 because the area lies in it
+        RegionPruner pruner = new RegionPruner(LOGGER, List.of("0,0"), List.of("-10,-10,-1,-1"));
+        Path kept = file("region/r.0.0.mca");
+        Path keptNegative = file("region/r.-1.-1.mca");
+        Path keptEntities = file("entities/r.0.0.mca");
+        Path deleted = file("region/r.1.0.mca");
+        Path deletedPoi = file("poi/r.0.1.mca");
+        Path deletedNether = file("DIM-1/region/r.0.-1.mca");
+
+        assertTrue(pruner.prune(world.toFile(), null));
+        assertTrue(Files.exists(kept));
+        assertTrue(Files.exists(keptNegative));
+        assertTrue(Files.exists(keptEntities));
+        assertFalse(Files.exists(deleted));
+        assertFalse(Files.exists(deletedPoi));
+        assertFalse(Files.exists(deletedNether));
+        assertEquals(3, pruner.getDeletedFiles());
+        assertEquals(300, pruner.getDeletedBytes());
+    }
+
+    @Test
+    void oversizedChunksBelongToTheirRegion() throws IOException {
+        RegionPruner pruner = new RegionPruner(LOGGER, List.of("1,0", "-1,-1"), List.of());
+        // Chunk 33,0 is in region 1,0; chunk -1,-1 in region -1,-1; chunk 31,0 in region 0,0
+        Path kept = file("region/c.33.0.mcc");
+        Path keptNegative = file("region/c.-1.-1.mcc");
+        Path deleted = file("region/c.31.0.mcc");
+
+        assertTrue(pruner.prune(world.toFile(), null));
+        assertTrue(Files.exists(kept));
+        assertTrue(Files.exists(keptNegative));
+        assertFalse(Files.exists(deleted));
+    }
+
+    @Test
+    void interruptedPruneStopsDeleting() throws IOException {
+        RegionPruner pruner = new RegionPruner(LOGGER, List.of(), List.of());
+        IoThrottle throttle = new IoThrottle(target -> false);
+        throttle.configure(1000, 0, 0);
+        Path region = file("region/r.0.0.mca");
+
+        Thread.currentThread().interrupt();
+        try {
+            assertFalse(pruner.prune(world.toFile(), throttle));
+        } finally {
+            Thread.interrupted();
+        }
+        assertTrue(Files.exists(region));
+        assertEquals(0, pruner.getDeletedFiles());
+    }
+
+    @Test
+    void leavesOtherFilesAlone() throws IOException {
+        RegionPruner pruner = new RegionPruner(LOGGER, List.of(), List.of());
+        Path[] others = {
+                file("region/r.0.0.mca.tmp"),
+                file("region/r.x.0.mca"),
+                file("region/c.0.0.mca"),
+                file("region/notes.txt"),
+                file("level.dat"),
+                file("data/r.0.0.mca")
+        };
+
+        assertTrue(pruner.prune(world.toFile(), null));
+        for (Path other : others) {
+            assertTrue(Files.exists(other), other + " was deleted");
+        }
+        assertEquals(0, pruner.getDeletedFiles());
+    }
+}
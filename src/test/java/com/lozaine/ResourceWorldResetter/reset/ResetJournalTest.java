@@ -0,0 +1,128 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResetJournalTest {
+    @TempDir
+    Path dataFolder;
+
+    // Only the data folder and logger are used by the journal
+    private ResetJournal journal() {
+        Logger logger = Logger.getLogger(ResetJournalTest.class.getName());
+        Plugin plugin = (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[]{Plugin.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getDataFolder" -> dataFolder.toFile();
+                    case "getLogger" -> logger;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return new ResetJournal(plugin);
+    }
+
+    @Test
+    void reportsLastStageOfInterruptedReset() {
+        ResetJournal journal = journal();
+        journal.begin("resources", ResetPipeline.Stage.PREPARE);
+        journal.begin("resources", ResetPipeline.Stage.EVACUATE);
+        journal.begin("resources", ResetPipeline.Stage.UNLOAD);
+
+        List<ResetJournal.Unfinished> unfinished = journal().readUnfinished();
+        assertEquals(1, unfinished.size());
+        ResetJournal.Unfinished reset = unfinished.get(0);
+        assertEquals("resources", reset.worldName());
+        assertEquals(ResetPipeline.Stage.UNLOAD, reset.stage());
+        assertFalse(reset.committed());
+        assertTrue(reset.startedAt() > 0);
+    }
+
+    @Test
+    void commitCarriesOverToLaterStages() {
+        ResetJournal journal = journal();
+        journal.begin("resources", ResetPipeline.Stage.PREPARE);
+        journal.begin("resources", ResetPipeline.Stage.REMOVE);
+        journal.commit("resources");
+        journal.begin("resources", ResetPipeline.Stage.CREATE);
+
+        ResetJournal.Unfinished reset = journal().readUnfinished().get(0);
+        assertEquals(ResetPipeline.Stage.CREATE, reset.stage());
+        assertTrue(reset.committed());
+    }
+
+    @Test
+    void finishedResetsAreLeftOut() {
+        ResetJournal journal = journal();
+        journal.begin("resources", ResetPipeline.Stage.PREPARE);
+        journal.begin("nether", ResetPipeline.Stage.PREPARE);
+        journal.begin("resources", ResetPipeline.Stage.REMOVE);
+        journal.commit("resources");
+        journal.end("resources", ResetPipeline.State.COMPLETED);
+        journal.begin("nether", ResetPipeline.Stage.EVACUATE);
+
+        List<ResetJournal.Unfinished> unfinished = journal().readUnfinished();
+        assertEquals(1, unfinished.size());
+        assertEquals("nether", unfinished.get(0).worldName());
+    }
+
+    @Test
+    void journalIsEmptiedOnceIdle() {
+        ResetJournal journal = journal();
+        journal.begin("resources", ResetPipeline.Stage.PREPARE);
+        journal.end("resources", ResetPipeline.State.FAILED);
+
+        assertTrue(journal().readUnfinished().isEmpty());
+    }
+
+    @Test
+    void newRunStartsUncommitted() throws IOException {
+        // A run that failed after its commit without an END line, followed by a new run
+        writeJournal("1000\tresources\tBEGIN\tREMOVE\n"
+                + "1001\tresources\tCOMMIT\t\n"
+                + "2000\tresources\tBEGIN\tPREPARE\n"
+                + "2001\tresources\tBEGIN\tEVACUATE\n");
+
+        ResetJournal.Unfinished reset = journal().readUnfinished().get(0);
+        assertEquals(ResetPipeline.Stage.EVACUATE, reset.stage());
+        assertFalse(reset.committed());
+        assertEquals(2000, reset.startedAt());
+    }
+
+    @Test
+    void skipsTornAndUnknownLines() throws IOException {
+        writeJournal("1000\tresources\tBEGIN\tPREPARE\n"
+                + "1001\tresources\tBEGIN\tSOMETHING_NEW\n"
+                + "1002\tresources\tBEGIN\tEVACUATE\n"
+                + "1003\tresources\tCOMM");
+
+        ResetJournal.Unfinished reset = journal().readUnfinished().get(0);
+        assertEquals(ResetPipeline.Stage.EVACUATE, reset.stage());
+        assertFalse(reset.committed());
+    }
+
+    @Test
+    void readingEmptiesTheJournal() {
+        journal().begin("resources", ResetPipeline.Stage.PREPARE);
+
+        ResetJournal journal = journal();
+        assertEquals(1, journal.readUnfinished().size());
+        assertTrue(journal.readUnfinished().isEmpty());
+    }
+
+    private void writeJournal(String content) throws IOException {
+        Files.writeString(dataFolder.resolve("reset-journal.log"), content, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
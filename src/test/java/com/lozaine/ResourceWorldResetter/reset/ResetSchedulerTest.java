@@ -0,0 +1,56 @@
+package com.lozaine.ResourceWorldResetter.reset;
+
+import com.lozaine.ResourceWorldResetter.utils.CronExpression;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResetSchedulerTest {
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    private static ZonedDateTime at(int month, int day, int hour) {
+        return ZonedDateTime.of(2026, month, day, hour, 0, 0, 0, BERLIN);
+    }
+
+    @Test
+    void multiDayOutageCatchesUpTheLatestMissedReset() {
+        ManagedWorld world = new ManagedWorld("resources");
+        world.setRestartTime(3);
+        // Down from 10 October until an hour after the reset on the 18th
+        assertEquals(at(10, 18, 3), ResetScheduler.latestDue(world::computeNextReset, at(10, 10, 3), at(10, 18, 4)));
+    }
+
+    @Test
+    void nothingMissedWhenNextResetIsAhead() {
+        ManagedWorld world = new ManagedWorld("resources");
+        world.setRestartTime(3);
+        assertNull(ResetScheduler.latestDue(world::computeNextReset, at(10, 18, 3), at(10, 18, 20)));
+    }
+
+    @Test
+    void resetDueExactlyNowCounts() {
+        ManagedWorld world = new ManagedWorld("resources");
+        world.setRestartTime(3);
+        assertEquals(at(10, 19, 3), ResetScheduler.latestDue(world::computeNextReset, at(10, 18, 3), at(10, 19, 3)));
+    }
+
+    @Test
+    void outageOverSeveralMonthsLandsOnTheLastMonthlyReset() {
+        ManagedWorld world = new ManagedWorld("resources");
+        world.setResetType("monthly");
+        world.setRestartTime(3);
+        world.setResetDay(31);
+        assertEquals(at(9, 30, 3), ResetScheduler.latestDue(world::computeNextReset, at(5, 31, 3), at(10, 18, 12)));
+    }
+
+    @Test
+    void outageAcrossClockChangeWithCron() {
+        CronExpression schedule = CronExpression.parse("0 */6 * * *");
+        // Clocks go back on 25 October; the latest 6-hourly time before 07:00 is 06:00 local
+        assertEquals(at(10, 25, 6), ResetScheduler.latestDue(schedule::next, at(10, 22, 0), at(10, 25, 7)));
+    }
+}
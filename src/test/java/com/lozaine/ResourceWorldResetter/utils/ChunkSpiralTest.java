@@ -0,0 +1,54 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkSpiralTest {
+
+    @Test
+    void coversEveryChunkInRadiusOnce() {
+        int radius = 7;
+        ChunkSpiral spiral = new ChunkSpiral();
+        Set<Long> seen = new HashSet<>();
+        int ring = 0;
+        for (long i = 0; i < ChunkSpiral.count(radius); i++) {
+            int x = spiral.getX();
+            int z = spiral.getZ();
+            assertTrue(Math.abs(x) <= radius && Math.abs(z) <= radius, "(" + x + ", " + z + ") is outside the radius");
+            assertTrue(seen.add(((long) x << 32) | (z & 0xFFFFFFFFL)), "(" + x + ", " + z + ") visited twice");
+
+            // Rings are finished before the next one starts
+            int distance = Math.max(Math.abs(x), Math.abs(z));
+            assertTrue(distance == ring || distance == ring + 1, "jumped from ring " + ring + " to " + distance);
+            ring = distance;
+            spiral.advance();
+        }
+        assertEquals(225, seen.size());
+        assertEquals(radius + 1, Math.max(Math.abs(spiral.getX()), Math.abs(spiral.getZ())));
+    }
+
+    @Test
+    void skipToMatchesAdvancing() {
+        ChunkSpiral walked = new ChunkSpiral();
+        for (int i = 0; i < 1000; i++) {
+            walked.advance();
+        }
+        ChunkSpiral resumed = new ChunkSpiral();
+        resumed.skipTo(1000);
+        assertEquals(1000, resumed.getIndex());
+        assertEquals(walked.getX(), resumed.getX());
+        assertEquals(walked.getZ(), resumed.getZ());
+    }
+
+    @Test
+    void countIsSquareOfDiameter() {
+        assertEquals(1, ChunkSpiral.count(0));
+        assertEquals(9, ChunkSpiral.count(1));
+        assertEquals(4_000_001L * 4_000_001L, ChunkSpiral.count(2_000_000));
+    }
+}
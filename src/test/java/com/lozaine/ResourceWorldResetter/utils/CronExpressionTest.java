@@ -0,0 +1,100 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CronExpressionTest {
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    private static ZonedDateTime at(String localTime) {
+        return LocalDateTime.parse(localTime).atZone(BERLIN);
+    }
+
+    @Test
+    void shortcutsExpandToTheirExpressions() {
+        ZonedDateTime after = at("2026-10-14T10:15");
+        assertEquals(at("2026-10-14T11:00"), CronExpression.parse("@hourly").next(after));
+        assertEquals(at("2026-10-15T00:00"), CronExpression.parse("@daily").next(after));
+        assertEquals(at("2026-10-15T00:00"), CronExpression.parse("@midnight").next(after));
+        // 18 October 2026 is a Sunday
+        assertEquals(at("2026-10-18T00:00"), CronExpression.parse("@weekly").next(after));
+        assertEquals(at("2026-11-01T00:00"), CronExpression.parse("@MONTHLY").next(after));
+    }
+
+    @Test
+    void nextIsStrictlyAfter() {
+        CronExpression daily = CronExpression.parse("0 3 * * *");
+        assertEquals(at("2026-10-15T03:00"), daily.next(at("2026-10-14T03:00")));
+        assertEquals(at("2026-10-14T03:00"), daily.next(at("2026-10-14T02:59:59")));
+    }
+
+    @Test
+    void rangesListsAndSteps() {
+        CronExpression expression = CronExpression.parse("*/20 8-9 * * 1,3");
+        // Wednesday 14 October 2026
+        assertEquals(at("2026-10-14T08:40"), expression.next(at("2026-10-14T08:21")));
+        assertEquals(at("2026-10-14T09:00"), expression.next(at("2026-10-14T08:40")));
+        // Next match after Wednesday morning is Monday
+        assertEquals(at("2026-10-19T08:00"), expression.next(at("2026-10-14T09:40")));
+    }
+
+    @Test
+    void eitherRestrictedDayFieldMatches() {
+        // The 1st of the month or any Friday
+        CronExpression expression = CronExpression.parse("0 0 1 * 5");
+        assertEquals(at("2026-10-16T00:00"), expression.next(at("2026-10-14T00:00")));
+        assertEquals(at("2026-11-01T00:00"), expression.next(at("2026-10-30T00:00")));
+    }
+
+    @Test
+    void sundayCanBeSevenOrZero() {
+        assertEquals(CronExpression.parse("0 0 * * 0").next(at("2026-10-14T00:00")),
+                CronExpression.parse("0 0 * * 7").next(at("2026-10-14T00:00")));
+    }
+
+    @Test
+    void skipsMonthsWithoutTheDay() {
+        assertEquals(at("2026-12-31T03:00"), CronExpression.parse("0 3 31 * *").next(at("2026-11-01T00:00")));
+    }
+
+    @Test
+    void timeInSpringForwardGapFiresOnceAfterIt() {
+        // Clocks go from 02:00 to 03:00 on 29 March 2026
+        CronExpression expression = CronExpression.parse("30 2 * * *");
+        ZonedDateTime first = expression.next(ZonedDateTime.of(2026, 3, 29, 1, 0, 0, 0, BERLIN));
+        assertEquals(ZonedDateTime.of(2026, 3, 29, 3, 30, 0, 0, BERLIN), first);
+        assertEquals(ZonedDateTime.of(2026, 3, 30, 2, 30, 0, 0, BERLIN), expression.next(first));
+    }
+
+    @Test
+    void repeatedTimeInFallBackOverlapFiresOnce() {
+        // Clocks go from 03:00 back to 02:00 on 25 October 2026, so 02:30 happens twice
+        CronExpression expression = CronExpression.parse("30 2 * * *");
+        ZonedDateTime first = expression.next(ZonedDateTime.of(2026, 10, 25, 0, 0, 0, 0, BERLIN));
+        assertEquals(ZonedDateTime.parse("2026-10-25T02:30+02:00[Europe/Berlin]"), first);
+        assertEquals(ZonedDateTime.of(2026, 10, 26, 2, 30, 0, 0, BERLIN), expression.next(first));
+        // Also from the second 02:30
+        assertEquals(ZonedDateTime.of(2026, 10, 26, 2, 30, 0, 0, BERLIN),
+                expression.next(ZonedDateTime.parse("2026-10-25T02:30+01:00[Europe/Berlin]")));
+    }
+
+    @Test
+    void rejectsInvalidExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 3 * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("60 3 * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 5-3 * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 x * * *"));
+    }
+
+    @Test
+    void impossibleDateNeverMatches() {
+        CronExpression expression = CronExpression.parse("0 0 30 2 *");
+        assertThrows(IllegalStateException.class, () -> expression.next(at("2026-10-14T00:00")));
+    }
+}
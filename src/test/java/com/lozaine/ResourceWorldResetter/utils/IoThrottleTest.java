@@ -0,0 +1,45 @@
+package com.lozaine.ResourceWorldResetter.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IoThrottleTest {
+
+    @Test
+    void keepsFullRateWhileServerKeepsUp() {
+        IoThrottle throttle = new IoThrottle(target -> false);
+        throttle.configure(1000, 0, 40);
+        long start = System.nanoTime();
+        for (int i = 0; i < 500; i++) {
+            throttle.acquire(0);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertEquals(1.0, throttle.getFactor(), 0);
+        assertEquals(0, throttle.getBackoffs());
+        assertTrue(seconds >= 0.35 && seconds < 2, "500 files at 1000/s took " + seconds + "s");
+    }
+
+    @Test
+    void backsOffOncePerSecondWhileOverloaded() {
+        IoThrottle throttle = new IoThrottle(target -> target == 40);
+        throttle.configure(200, 0, 40);
+        long end = System.nanoTime() + 1_500_000_000L;
+        while (System.nanoTime() < end) {
+            throttle.acquire(0);
+        }
+        assertEquals(2, throttle.getBackoffs());
+        assertEquals(0.25, throttle.getFactor(), 0);
+    }
+
+    @Test
+    void noTargetNeverBacksOff() {
+        IoThrottle throttle = new IoThrottle(target -> true);
+        throttle.configure(1000, 0, 0);
+        for (int i = 0; i < 300; i++) {
+            throttle.acquire(0);
+        }
+        assertEquals(0, throttle.getBackoffs());
+    }
+}